@@ -24,6 +24,11 @@ public final class Message {
   static final 
     com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
       internal_static_com_akmade_common_proto_MsgList_fieldAccessorTable;
+  static final com.google.protobuf.Descriptors.Descriptor
+    internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor;
+  static final 
+    com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internal_static_com_akmade_common_proto_ServicePackageEnvelope_fieldAccessorTable;
 
   public static com.google.protobuf.Descriptors.FileDescriptor
       getDescriptor() {
@@ -40,8 +45,10 @@ public final class Message {
       "ge\030\002 \001(\t\";\n\010Severity\022\010\n\004INFO\020\000\022\013\n\007WARNIN" +
       "G\020\001\022\t\n\005ERROR\020\002\022\r\n\tEXCEPTION\020\003\"9\n\007MsgList" +
       "\022.\n\010messages\030\001 \003(\0132\034.com.akmade.common.p" +
-      "roto.MsgB\033\n\027com.akmade.common.protoP\001b\006p" +
-      "roto3"
+      "roto.Msg\"o\n\026ServicePackageEnvelope\022\024\n\014pa" +
+      "yload_type\030\001 \001(\t\022\017\n\007payload\030\002 \001(\014\022.\n\010mes" +
+      "sages\030\003 \003(\0132\034.com.akmade.common.proto.Ms" +
+      "gB\033\n\027com.akmade.common.protoP\001b\006proto3"
     };
     com.google.protobuf.Descriptors.FileDescriptor.InternalDescriptorAssigner assigner =
         new com.google.protobuf.Descriptors.FileDescriptor.    InternalDescriptorAssigner() {
@@ -68,6 +75,12 @@ public final class Message {
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_com_akmade_common_proto_MsgList_descriptor,
         new java.lang.String[] { "Messages", });
+    internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor =
+      getDescriptor().getMessageTypes().get(2);
+    internal_static_com_akmade_common_proto_ServicePackageEnvelope_fieldAccessorTable = new
+      com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
+        internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor,
+        new java.lang.String[] { "PayloadType", "Payload", "Messages", });
     com.google.protobuf.WrappersProto.getDescriptor();
   }
 
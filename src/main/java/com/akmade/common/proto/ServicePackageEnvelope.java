@@ -0,0 +1,939 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// source: Message.proto
+
+package com.akmade.common.proto;
+
+/**
+ * <pre>
+ * Wire envelope for com.akmade.util.ServicePackage. The payload is carried as
+ * already-serialized bytes so it is never decoded and re-encoded in transit.
+ * Fields may be written in any order, which lets producers stream messages
+ * before or after the payload.
+ * </pre>
+ *
+ * Protobuf type {@code com.akmade.common.proto.ServicePackageEnvelope}
+ */
+public  final class ServicePackageEnvelope extends
+    com.google.protobuf.GeneratedMessageV3 implements
+    // @@protoc_insertion_point(message_implements:com.akmade.common.proto.ServicePackageEnvelope)
+    ServicePackageEnvelopeOrBuilder {
+private static final long serialVersionUID = 0L;
+  // Use ServicePackageEnvelope.newBuilder() to construct.
+  private ServicePackageEnvelope(com.google.protobuf.GeneratedMessageV3.Builder<?> builder) {
+    super(builder);
+  }
+  private ServicePackageEnvelope() {
+    payloadType_ = "";
+    payload_ = com.google.protobuf.ByteString.EMPTY;
+    messages_ = java.util.Collections.emptyList();
+  }
+
+  @java.lang.Override
+  public final com.google.protobuf.UnknownFieldSet
+  getUnknownFields() {
+    return this.unknownFields;
+  }
+  private ServicePackageEnvelope(
+      com.google.protobuf.CodedInputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    this();
+    if (extensionRegistry == null) {
+      throw new java.lang.NullPointerException();
+    }
+    int mutable_bitField0_ = 0;
+    com.google.protobuf.UnknownFieldSet.Builder unknownFields =
+        com.google.protobuf.UnknownFieldSet.newBuilder();
+    try {
+      boolean done = false;
+      while (!done) {
+        int tag = input.readTag();
+        switch (tag) {
+          case 0:
+            done = true;
+            break;
+          default: {
+            if (!parseUnknownFieldProto3(
+                input, unknownFields, extensionRegistry, tag)) {
+              done = true;
+            }
+            break;
+          }
+          case 10: {
+            java.lang.String s = input.readStringRequireUtf8();
+
+            payloadType_ = s;
+            break;
+          }
+          case 18: {
+
+            payload_ = input.readBytes();
+            break;
+          }
+          case 26: {
+            if (!((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+              messages_ = new java.util.ArrayList<com.akmade.common.proto.Msg>();
+              mutable_bitField0_ |= 0x00000004;
+            }
+            messages_.add(
+                input.readMessage(com.akmade.common.proto.Msg.parser(), extensionRegistry));
+            break;
+          }
+        }
+      }
+    } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+      throw e.setUnfinishedMessage(this);
+    } catch (java.io.IOException e) {
+      throw new com.google.protobuf.InvalidProtocolBufferException(
+          e).setUnfinishedMessage(this);
+    } finally {
+      if (((mutable_bitField0_ & 0x00000004) == 0x00000004)) {
+        messages_ = java.util.Collections.unmodifiableList(messages_);
+      }
+      this.unknownFields = unknownFields.build();
+      makeExtensionsImmutable();
+    }
+  }
+  public static final com.google.protobuf.Descriptors.Descriptor
+      getDescriptor() {
+    return com.akmade.common.proto.Message.internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor;
+  }
+
+  protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+      internalGetFieldAccessorTable() {
+    return com.akmade.common.proto.Message.internal_static_com_akmade_common_proto_ServicePackageEnvelope_fieldAccessorTable
+        .ensureFieldAccessorsInitialized(
+            com.akmade.common.proto.ServicePackageEnvelope.class, com.akmade.common.proto.ServicePackageEnvelope.Builder.class);
+  }
+
+  private int bitField0_;
+  public static final int PAYLOAD_TYPE_FIELD_NUMBER = 1;
+  private volatile java.lang.Object payloadType_;
+  /**
+   * <code>string payload_type = 1;</code>
+   */
+  public java.lang.String getPayloadType() {
+    java.lang.Object ref = payloadType_;
+    if (ref instanceof java.lang.String) {
+      return (java.lang.String) ref;
+    } else {
+      com.google.protobuf.ByteString bs = 
+          (com.google.protobuf.ByteString) ref;
+      java.lang.String s = bs.toStringUtf8();
+      payloadType_ = s;
+      return s;
+    }
+  }
+  /**
+   * <code>string payload_type = 1;</code>
+   */
+  public com.google.protobuf.ByteString
+      getPayloadTypeBytes() {
+    java.lang.Object ref = payloadType_;
+    if (ref instanceof java.lang.String) {
+      com.google.protobuf.ByteString b = 
+          com.google.protobuf.ByteString.copyFromUtf8(
+              (java.lang.String) ref);
+      payloadType_ = b;
+      return b;
+    } else {
+      return (com.google.protobuf.ByteString) ref;
+    }
+  }
+
+  public static final int PAYLOAD_FIELD_NUMBER = 2;
+  private com.google.protobuf.ByteString payload_;
+  /**
+   * <code>bytes payload = 2;</code>
+   */
+  public com.google.protobuf.ByteString getPayload() {
+    return payload_;
+  }
+
+  public static final int MESSAGES_FIELD_NUMBER = 3;
+  private java.util.List<com.akmade.common.proto.Msg> messages_;
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  public java.util.List<com.akmade.common.proto.Msg> getMessagesList() {
+    return messages_;
+  }
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  public java.util.List<? extends com.akmade.common.proto.MsgOrBuilder> 
+      getMessagesOrBuilderList() {
+    return messages_;
+  }
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  public int getMessagesCount() {
+    return messages_.size();
+  }
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  public com.akmade.common.proto.Msg getMessages(int index) {
+    return messages_.get(index);
+  }
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  public com.akmade.common.proto.MsgOrBuilder getMessagesOrBuilder(
+      int index) {
+    return messages_.get(index);
+  }
+
+  private byte memoizedIsInitialized = -1;
+  public final boolean isInitialized() {
+    byte isInitialized = memoizedIsInitialized;
+    if (isInitialized == 1) return true;
+    if (isInitialized == 0) return false;
+
+    memoizedIsInitialized = 1;
+    return true;
+  }
+
+  public void writeTo(com.google.protobuf.CodedOutputStream output)
+                      throws java.io.IOException {
+    if (!getPayloadTypeBytes().isEmpty()) {
+      com.google.protobuf.GeneratedMessageV3.writeString(output, 1, payloadType_);
+    }
+    if (!payload_.isEmpty()) {
+      output.writeBytes(2, payload_);
+    }
+    for (int i = 0; i < messages_.size(); i++) {
+      output.writeMessage(3, messages_.get(i));
+    }
+    unknownFields.writeTo(output);
+  }
+
+  public int getSerializedSize() {
+    int size = memoizedSize;
+    if (size != -1) return size;
+
+    size = 0;
+    if (!getPayloadTypeBytes().isEmpty()) {
+      size += com.google.protobuf.GeneratedMessageV3.computeStringSize(1, payloadType_);
+    }
+    if (!payload_.isEmpty()) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeBytesSize(2, payload_);
+    }
+    for (int i = 0; i < messages_.size(); i++) {
+      size += com.google.protobuf.CodedOutputStream
+        .computeMessageSize(3, messages_.get(i));
+    }
+    size += unknownFields.getSerializedSize();
+    memoizedSize = size;
+    return size;
+  }
+
+  @java.lang.Override
+  public boolean equals(final java.lang.Object obj) {
+    if (obj == this) {
+     return true;
+    }
+    if (!(obj instanceof com.akmade.common.proto.ServicePackageEnvelope)) {
+      return super.equals(obj);
+    }
+    com.akmade.common.proto.ServicePackageEnvelope other = (com.akmade.common.proto.ServicePackageEnvelope) obj;
+
+    boolean result = true;
+    result = result && getPayloadType()
+        .equals(other.getPayloadType());
+    result = result && getPayload()
+        .equals(other.getPayload());
+    result = result && getMessagesList()
+        .equals(other.getMessagesList());
+    result = result && unknownFields.equals(other.unknownFields);
+    return result;
+  }
+
+  @java.lang.Override
+  public int hashCode() {
+    if (memoizedHashCode != 0) {
+      return memoizedHashCode;
+    }
+    int hash = 41;
+    hash = (19 * hash) + getDescriptor().hashCode();
+    hash = (37 * hash) + PAYLOAD_TYPE_FIELD_NUMBER;
+    hash = (53 * hash) + getPayloadType().hashCode();
+    hash = (37 * hash) + PAYLOAD_FIELD_NUMBER;
+    hash = (53 * hash) + getPayload().hashCode();
+    if (getMessagesCount() > 0) {
+      hash = (37 * hash) + MESSAGES_FIELD_NUMBER;
+      hash = (53 * hash) + getMessagesList().hashCode();
+    }
+    hash = (29 * hash) + unknownFields.hashCode();
+    memoizedHashCode = hash;
+    return hash;
+  }
+
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      java.nio.ByteBuffer data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      java.nio.ByteBuffer data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      com.google.protobuf.ByteString data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      com.google.protobuf.ByteString data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(byte[] data)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      byte[] data,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws com.google.protobuf.InvalidProtocolBufferException {
+    return PARSER.parseFrom(data, extensionRegistry);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseDelimitedFrom(java.io.InputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseDelimitedWithIOException(PARSER, input);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseDelimitedFrom(
+      java.io.InputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseDelimitedWithIOException(PARSER, input, extensionRegistry);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      com.google.protobuf.CodedInputStream input)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseWithIOException(PARSER, input);
+  }
+  public static com.akmade.common.proto.ServicePackageEnvelope parseFrom(
+      com.google.protobuf.CodedInputStream input,
+      com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+      throws java.io.IOException {
+    return com.google.protobuf.GeneratedMessageV3
+        .parseWithIOException(PARSER, input, extensionRegistry);
+  }
+
+  public Builder newBuilderForType() { return newBuilder(); }
+  public static Builder newBuilder() {
+    return DEFAULT_INSTANCE.toBuilder();
+  }
+  public static Builder newBuilder(com.akmade.common.proto.ServicePackageEnvelope prototype) {
+    return DEFAULT_INSTANCE.toBuilder().mergeFrom(prototype);
+  }
+  public Builder toBuilder() {
+    return this == DEFAULT_INSTANCE
+        ? new Builder() : new Builder().mergeFrom(this);
+  }
+
+  @java.lang.Override
+  protected Builder newBuilderForType(
+      com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+    Builder builder = new Builder(parent);
+    return builder;
+  }
+  /**
+   * <pre>
+   * Wire envelope for com.akmade.util.ServicePackage. The payload is carried as
+   * already-serialized bytes so it is never decoded and re-encoded in transit.
+   * Fields may be written in any order, which lets producers stream messages
+   * before or after the payload.
+   * </pre>
+   *
+   * Protobuf type {@code com.akmade.common.proto.ServicePackageEnvelope}
+   */
+  public static final class Builder extends
+      com.google.protobuf.GeneratedMessageV3.Builder<Builder> implements
+      // @@protoc_insertion_point(builder_implements:com.akmade.common.proto.ServicePackageEnvelope)
+      com.akmade.common.proto.ServicePackageEnvelopeOrBuilder {
+    public static final com.google.protobuf.Descriptors.Descriptor
+        getDescriptor() {
+      return com.akmade.common.proto.Message.internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor;
+    }
+
+    protected com.google.protobuf.GeneratedMessageV3.FieldAccessorTable
+        internalGetFieldAccessorTable() {
+      return com.akmade.common.proto.Message.internal_static_com_akmade_common_proto_ServicePackageEnvelope_fieldAccessorTable
+          .ensureFieldAccessorsInitialized(
+              com.akmade.common.proto.ServicePackageEnvelope.class, com.akmade.common.proto.ServicePackageEnvelope.Builder.class);
+    }
+
+    // Construct using com.akmade.common.proto.ServicePackageEnvelope.newBuilder()
+    private Builder() {
+      maybeForceBuilderInitialization();
+    }
+
+    private Builder(
+        com.google.protobuf.GeneratedMessageV3.BuilderParent parent) {
+      super(parent);
+      maybeForceBuilderInitialization();
+    }
+    private void maybeForceBuilderInitialization() {
+      if (com.google.protobuf.GeneratedMessageV3
+              .alwaysUseFieldBuilders) {
+        getMessagesFieldBuilder();
+      }
+    }
+    public Builder clear() {
+      super.clear();
+      payloadType_ = "";
+
+      payload_ = com.google.protobuf.ByteString.EMPTY;
+
+      if (messagesBuilder_ == null) {
+        messages_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+      } else {
+        messagesBuilder_.clear();
+      }
+      return this;
+    }
+
+    public com.google.protobuf.Descriptors.Descriptor
+        getDescriptorForType() {
+      return com.akmade.common.proto.Message.internal_static_com_akmade_common_proto_ServicePackageEnvelope_descriptor;
+    }
+
+    public com.akmade.common.proto.ServicePackageEnvelope getDefaultInstanceForType() {
+      return com.akmade.common.proto.ServicePackageEnvelope.getDefaultInstance();
+    }
+
+    public com.akmade.common.proto.ServicePackageEnvelope build() {
+      com.akmade.common.proto.ServicePackageEnvelope result = buildPartial();
+      if (!result.isInitialized()) {
+        throw newUninitializedMessageException(result);
+      }
+      return result;
+    }
+
+    public com.akmade.common.proto.ServicePackageEnvelope buildPartial() {
+      com.akmade.common.proto.ServicePackageEnvelope result = new com.akmade.common.proto.ServicePackageEnvelope(this);
+      int from_bitField0_ = bitField0_;
+      int to_bitField0_ = 0;
+      result.payloadType_ = payloadType_;
+      result.payload_ = payload_;
+      if (messagesBuilder_ == null) {
+        if (((bitField0_ & 0x00000004) == 0x00000004)) {
+          messages_ = java.util.Collections.unmodifiableList(messages_);
+          bitField0_ = (bitField0_ & ~0x00000004);
+        }
+        result.messages_ = messages_;
+      } else {
+        result.messages_ = messagesBuilder_.build();
+      }
+      result.bitField0_ = to_bitField0_;
+      onBuilt();
+      return result;
+    }
+
+    public Builder clone() {
+      return (Builder) super.clone();
+    }
+    public Builder setField(
+        com.google.protobuf.Descriptors.FieldDescriptor field,
+        java.lang.Object value) {
+      return (Builder) super.setField(field, value);
+    }
+    public Builder clearField(
+        com.google.protobuf.Descriptors.FieldDescriptor field) {
+      return (Builder) super.clearField(field);
+    }
+    public Builder clearOneof(
+        com.google.protobuf.Descriptors.OneofDescriptor oneof) {
+      return (Builder) super.clearOneof(oneof);
+    }
+    public Builder setRepeatedField(
+        com.google.protobuf.Descriptors.FieldDescriptor field,
+        int index, java.lang.Object value) {
+      return (Builder) super.setRepeatedField(field, index, value);
+    }
+    public Builder addRepeatedField(
+        com.google.protobuf.Descriptors.FieldDescriptor field,
+        java.lang.Object value) {
+      return (Builder) super.addRepeatedField(field, value);
+    }
+    public Builder mergeFrom(com.google.protobuf.Message other) {
+      if (other instanceof com.akmade.common.proto.ServicePackageEnvelope) {
+        return mergeFrom((com.akmade.common.proto.ServicePackageEnvelope)other);
+      } else {
+        super.mergeFrom(other);
+        return this;
+      }
+    }
+
+    public Builder mergeFrom(com.akmade.common.proto.ServicePackageEnvelope other) {
+      if (other == com.akmade.common.proto.ServicePackageEnvelope.getDefaultInstance()) return this;
+      if (!other.getPayloadType().isEmpty()) {
+        payloadType_ = other.payloadType_;
+        onChanged();
+      }
+      if (other.getPayload() != com.google.protobuf.ByteString.EMPTY) {
+        setPayload(other.getPayload());
+      }
+      if (messagesBuilder_ == null) {
+        if (!other.messages_.isEmpty()) {
+          if (messages_.isEmpty()) {
+            messages_ = other.messages_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+          } else {
+            ensureMessagesIsMutable();
+            messages_.addAll(other.messages_);
+          }
+          onChanged();
+        }
+      } else {
+        if (!other.messages_.isEmpty()) {
+          if (messagesBuilder_.isEmpty()) {
+            messagesBuilder_.dispose();
+            messagesBuilder_ = null;
+            messages_ = other.messages_;
+            bitField0_ = (bitField0_ & ~0x00000004);
+            messagesBuilder_ = 
+              com.google.protobuf.GeneratedMessageV3.alwaysUseFieldBuilders ?
+                 getMessagesFieldBuilder() : null;
+          } else {
+            messagesBuilder_.addAllMessages(other.messages_);
+          }
+        }
+      }
+      this.mergeUnknownFields(other.unknownFields);
+      onChanged();
+      return this;
+    }
+
+    public final boolean isInitialized() {
+      return true;
+    }
+
+    public Builder mergeFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws java.io.IOException {
+      com.akmade.common.proto.ServicePackageEnvelope parsedMessage = null;
+      try {
+        parsedMessage = PARSER.parsePartialFrom(input, extensionRegistry);
+      } catch (com.google.protobuf.InvalidProtocolBufferException e) {
+        parsedMessage = (com.akmade.common.proto.ServicePackageEnvelope) e.getUnfinishedMessage();
+        throw e.unwrapIOException();
+      } finally {
+        if (parsedMessage != null) {
+          mergeFrom(parsedMessage);
+        }
+      }
+      return this;
+    }
+    private int bitField0_;
+
+    private java.lang.Object payloadType_ = "";
+    /**
+     * <code>string payload_type = 1;</code>
+     */
+    public java.lang.String getPayloadType() {
+      java.lang.Object ref = payloadType_;
+      if (!(ref instanceof java.lang.String)) {
+        com.google.protobuf.ByteString bs =
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        payloadType_ = s;
+        return s;
+      } else {
+        return (java.lang.String) ref;
+      }
+    }
+    /**
+     * <code>string payload_type = 1;</code>
+     */
+    public com.google.protobuf.ByteString
+        getPayloadTypeBytes() {
+      java.lang.Object ref = payloadType_;
+      if (ref instanceof String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        payloadType_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+    /**
+     * <code>string payload_type = 1;</code>
+     */
+    public Builder setPayloadType(
+        java.lang.String value) {
+      if (value == null) {
+    throw new NullPointerException();
+  }
+  
+      payloadType_ = value;
+      onChanged();
+      return this;
+    }
+    /**
+     * <code>string payload_type = 1;</code>
+     */
+    public Builder clearPayloadType() {
+      
+      payloadType_ = getDefaultInstance().getPayloadType();
+      onChanged();
+      return this;
+    }
+    /**
+     * <code>string payload_type = 1;</code>
+     */
+    public Builder setPayloadTypeBytes(
+        com.google.protobuf.ByteString value) {
+      if (value == null) {
+    throw new NullPointerException();
+  }
+  checkByteStringIsUtf8(value);
+      
+      payloadType_ = value;
+      onChanged();
+      return this;
+    }
+
+    private com.google.protobuf.ByteString payload_ = com.google.protobuf.ByteString.EMPTY;
+    /**
+     * <code>bytes payload = 2;</code>
+     */
+    public com.google.protobuf.ByteString getPayload() {
+      return payload_;
+    }
+    /**
+     * <code>bytes payload = 2;</code>
+     */
+    public Builder setPayload(com.google.protobuf.ByteString value) {
+      if (value == null) {
+    throw new NullPointerException();
+  }
+  
+      payload_ = value;
+      onChanged();
+      return this;
+    }
+    /**
+     * <code>bytes payload = 2;</code>
+     */
+    public Builder clearPayload() {
+      
+      payload_ = getDefaultInstance().getPayload();
+      onChanged();
+      return this;
+    }
+
+    private java.util.List<com.akmade.common.proto.Msg> messages_ =
+      java.util.Collections.emptyList();
+    private void ensureMessagesIsMutable() {
+      if (!((bitField0_ & 0x00000004) == 0x00000004)) {
+        messages_ = new java.util.ArrayList<com.akmade.common.proto.Msg>(messages_);
+        bitField0_ |= 0x00000004;
+       }
+    }
+
+    private com.google.protobuf.RepeatedFieldBuilderV3<
+        com.akmade.common.proto.Msg, com.akmade.common.proto.Msg.Builder, com.akmade.common.proto.MsgOrBuilder> messagesBuilder_;
+
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public java.util.List<com.akmade.common.proto.Msg> getMessagesList() {
+      if (messagesBuilder_ == null) {
+        return java.util.Collections.unmodifiableList(messages_);
+      } else {
+        return messagesBuilder_.getMessageList();
+      }
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public int getMessagesCount() {
+      if (messagesBuilder_ == null) {
+        return messages_.size();
+      } else {
+        return messagesBuilder_.getCount();
+      }
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public com.akmade.common.proto.Msg getMessages(int index) {
+      if (messagesBuilder_ == null) {
+        return messages_.get(index);
+      } else {
+        return messagesBuilder_.getMessage(index);
+      }
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder setMessages(
+        int index, com.akmade.common.proto.Msg value) {
+      if (messagesBuilder_ == null) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureMessagesIsMutable();
+        messages_.set(index, value);
+        onChanged();
+      } else {
+        messagesBuilder_.setMessage(index, value);
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder setMessages(
+        int index, com.akmade.common.proto.Msg.Builder builderForValue) {
+      if (messagesBuilder_ == null) {
+        ensureMessagesIsMutable();
+        messages_.set(index, builderForValue.build());
+        onChanged();
+      } else {
+        messagesBuilder_.setMessage(index, builderForValue.build());
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder addMessages(com.akmade.common.proto.Msg value) {
+      if (messagesBuilder_ == null) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureMessagesIsMutable();
+        messages_.add(value);
+        onChanged();
+      } else {
+        messagesBuilder_.addMessage(value);
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder addMessages(
+        int index, com.akmade.common.proto.Msg value) {
+      if (messagesBuilder_ == null) {
+        if (value == null) {
+          throw new NullPointerException();
+        }
+        ensureMessagesIsMutable();
+        messages_.add(index, value);
+        onChanged();
+      } else {
+        messagesBuilder_.addMessage(index, value);
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder addMessages(
+        com.akmade.common.proto.Msg.Builder builderForValue) {
+      if (messagesBuilder_ == null) {
+        ensureMessagesIsMutable();
+        messages_.add(builderForValue.build());
+        onChanged();
+      } else {
+        messagesBuilder_.addMessage(builderForValue.build());
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder addMessages(
+        int index, com.akmade.common.proto.Msg.Builder builderForValue) {
+      if (messagesBuilder_ == null) {
+        ensureMessagesIsMutable();
+        messages_.add(index, builderForValue.build());
+        onChanged();
+      } else {
+        messagesBuilder_.addMessage(index, builderForValue.build());
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder addAllMessages(
+        java.lang.Iterable<? extends com.akmade.common.proto.Msg> values) {
+      if (messagesBuilder_ == null) {
+        ensureMessagesIsMutable();
+        com.google.protobuf.AbstractMessageLite.Builder.addAll(
+            values, messages_);
+        onChanged();
+      } else {
+        messagesBuilder_.addAllMessages(values);
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder clearMessages() {
+      if (messagesBuilder_ == null) {
+        messages_ = java.util.Collections.emptyList();
+        bitField0_ = (bitField0_ & ~0x00000004);
+        onChanged();
+      } else {
+        messagesBuilder_.clear();
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public Builder removeMessages(int index) {
+      if (messagesBuilder_ == null) {
+        ensureMessagesIsMutable();
+        messages_.remove(index);
+        onChanged();
+      } else {
+        messagesBuilder_.remove(index);
+      }
+      return this;
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public com.akmade.common.proto.Msg.Builder getMessagesBuilder(
+        int index) {
+      return getMessagesFieldBuilder().getBuilder(index);
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public com.akmade.common.proto.MsgOrBuilder getMessagesOrBuilder(
+        int index) {
+      if (messagesBuilder_ == null) {
+        return messages_.get(index);  } else {
+        return messagesBuilder_.getMessageOrBuilder(index);
+      }
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public java.util.List<? extends com.akmade.common.proto.MsgOrBuilder> 
+         getMessagesOrBuilderList() {
+      if (messagesBuilder_ != null) {
+        return messagesBuilder_.getMessageOrBuilderList();
+      } else {
+        return java.util.Collections.unmodifiableList(messages_);
+      }
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public com.akmade.common.proto.Msg.Builder addMessagesBuilder() {
+      return getMessagesFieldBuilder().addBuilder(
+          com.akmade.common.proto.Msg.getDefaultInstance());
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public com.akmade.common.proto.Msg.Builder addMessagesBuilder(
+        int index) {
+      return getMessagesFieldBuilder().addBuilder(
+          index, com.akmade.common.proto.Msg.getDefaultInstance());
+    }
+    /**
+     * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+     */
+    public java.util.List<com.akmade.common.proto.Msg.Builder> 
+         getMessagesBuilderList() {
+      return getMessagesFieldBuilder().getBuilderList();
+    }
+    private com.google.protobuf.RepeatedFieldBuilderV3<
+        com.akmade.common.proto.Msg, com.akmade.common.proto.Msg.Builder, com.akmade.common.proto.MsgOrBuilder> 
+        getMessagesFieldBuilder() {
+      if (messagesBuilder_ == null) {
+        messagesBuilder_ = new com.google.protobuf.RepeatedFieldBuilderV3<
+            com.akmade.common.proto.Msg, com.akmade.common.proto.Msg.Builder, com.akmade.common.proto.MsgOrBuilder>(
+                messages_,
+                ((bitField0_ & 0x00000004) == 0x00000004),
+                getParentForChildren(),
+                isClean());
+        messages_ = null;
+      }
+      return messagesBuilder_;
+    }
+    public final Builder setUnknownFields(
+        final com.google.protobuf.UnknownFieldSet unknownFields) {
+      return super.setUnknownFieldsProto3(unknownFields);
+    }
+
+    public final Builder mergeUnknownFields(
+        final com.google.protobuf.UnknownFieldSet unknownFields) {
+      return super.mergeUnknownFields(unknownFields);
+    }
+
+
+    // @@protoc_insertion_point(builder_scope:com.akmade.common.proto.ServicePackageEnvelope)
+  }
+
+  // @@protoc_insertion_point(class_scope:com.akmade.common.proto.ServicePackageEnvelope)
+  private static final com.akmade.common.proto.ServicePackageEnvelope DEFAULT_INSTANCE;
+  static {
+    DEFAULT_INSTANCE = new com.akmade.common.proto.ServicePackageEnvelope();
+  }
+
+  public static com.akmade.common.proto.ServicePackageEnvelope getDefaultInstance() {
+    return DEFAULT_INSTANCE;
+  }
+
+  private static final com.google.protobuf.Parser<ServicePackageEnvelope>
+      PARSER = new com.google.protobuf.AbstractParser<ServicePackageEnvelope>() {
+    public ServicePackageEnvelope parsePartialFrom(
+        com.google.protobuf.CodedInputStream input,
+        com.google.protobuf.ExtensionRegistryLite extensionRegistry)
+        throws com.google.protobuf.InvalidProtocolBufferException {
+      return new ServicePackageEnvelope(input, extensionRegistry);
+    }
+  };
+
+  public static com.google.protobuf.Parser<ServicePackageEnvelope> parser() {
+    return PARSER;
+  }
+
+  @java.lang.Override
+  public com.google.protobuf.Parser<ServicePackageEnvelope> getParserForType() {
+    return PARSER;
+  }
+
+  public com.akmade.common.proto.ServicePackageEnvelope getDefaultInstanceForType() {
+    return DEFAULT_INSTANCE;
+  }
+
+}
+
@@ -0,0 +1,48 @@
+// Generated by the protocol buffer compiler.  DO NOT EDIT!
+// source: Message.proto
+
+package com.akmade.common.proto;
+
+public interface ServicePackageEnvelopeOrBuilder extends
+    // @@protoc_insertion_point(interface_extends:com.akmade.common.proto.ServicePackageEnvelope)
+    com.google.protobuf.MessageOrBuilder {
+
+  /**
+   * <code>string payload_type = 1;</code>
+   */
+  java.lang.String getPayloadType();
+  /**
+   * <code>string payload_type = 1;</code>
+   */
+  com.google.protobuf.ByteString
+      getPayloadTypeBytes();
+
+  /**
+   * <code>bytes payload = 2;</code>
+   */
+  com.google.protobuf.ByteString getPayload();
+
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  java.util.List<com.akmade.common.proto.Msg> 
+      getMessagesList();
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  com.akmade.common.proto.Msg getMessages(int index);
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  int getMessagesCount();
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  java.util.List<? extends com.akmade.common.proto.MsgOrBuilder> 
+      getMessagesOrBuilderList();
+  /**
+   * <code>repeated .com.akmade.common.proto.Msg messages = 3;</code>
+   */
+  com.akmade.common.proto.MsgOrBuilder getMessagesOrBuilder(
+      int index);
+}
@@ -0,0 +1,123 @@
+package com.akmade.hibernate;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Limits how many async tasks on a data source run at once. Tasks wait for
+ * a permit in a queue rather than on a thread, and are handed to the
+ * executor, in order, only once they have one.
+ *
+ * A limit that is not sized yet lets one task run at a time, until that
+ * task sizes it from the data source's connection pool.
+ */
+class AsyncLimit {
+	private final Queue<Task<?>> waiting = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger running = new AtomicInteger();
+	private final boolean configured;
+	private volatile int permits;
+	private volatile boolean sized;
+
+	AsyncLimit(int permits, boolean configured) {
+		this.permits = permits;
+		this.configured = configured;
+		this.sized = true;
+	}
+
+	private AsyncLimit() {
+		this(1, false);
+		this.sized = false;
+	}
+
+	/**
+	 * @return a limit to be sized by its first task, once the connection pool exists
+	 */
+	static AsyncLimit unsized() {
+		return new AsyncLimit();
+	}
+
+	/**
+	 * @return whether the limit was set explicitly, rather than sized from the connection pool
+	 */
+	boolean isConfigured() {
+		return configured;
+	}
+
+	boolean isSized() {
+		return sized;
+	}
+
+	/**
+	 * Sets the number of permits and starts any waiting tasks the new size allows.
+	 */
+	void resize(int permits, Executor executor) {
+		this.permits = permits;
+		this.sized = true;
+		dispatch(executor);
+	}
+
+	/**
+	 * @return a future completed with the work's result, or exceptionally if it
+	 * 	throws or the executor rejects it
+	 */
+	<T> CompletableFuture<T> submit(Supplier<T> work, Executor executor) {
+		Task<T> task = new Task<>(work);
+		waiting.add(task);
+		dispatch(executor);
+		return task.future;
+	}
+
+	private void dispatch(Executor executor) {
+		while (!waiting.isEmpty() && tryAcquire()) {
+			Task<?> task = waiting.poll();
+			if (task == null) {
+				running.decrementAndGet();
+				continue;
+			}
+			try {
+				executor.execute(() -> {
+					try {
+						task.run();
+					} finally {
+						running.decrementAndGet();
+						dispatch(executor);
+					}
+				});
+			} catch (RuntimeException e) {
+				running.decrementAndGet();
+				task.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	private boolean tryAcquire() {
+		int current;
+		do {
+			current = running.get();
+			if (current >= permits)
+				return false;
+		} while (!running.compareAndSet(current, current + 1));
+		return true;
+	}
+
+	private static class Task<T> {
+		private final Supplier<T> work;
+		private final CompletableFuture<T> future = new CompletableFuture<>();
+
+		Task(Supplier<T> work) {
+			this.work = work;
+		}
+
+		void run() {
+			try {
+				future.complete(work.get());
+			} catch (Throwable e) {
+				future.completeExceptionally(e);
+			}
+		}
+	}
+}
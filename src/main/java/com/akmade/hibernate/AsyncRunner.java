@@ -0,0 +1,97 @@
+package com.akmade.hibernate;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Runs blocking work against data sources on one executor, within an
+ * {@link AsyncLimit} per data source.
+ */
+class AsyncRunner {
+	private static Logger logger = LoggerFactory.getLogger(AsyncRunner.class);
+	private final ConcurrentMap<DataSource, AsyncLimit> limits = new ConcurrentHashMap<>();
+	private volatile Executor executor = null;
+
+	void setExecutor(Executor executor) {
+		this.executor = Objects.requireNonNull(executor);
+	}
+
+	Executor getExecutor() {
+		Executor current = executor;
+		if (current == null) {
+			synchronized (this) {
+				if (executor == null)
+					executor = defaultExecutor();
+				current = executor;
+			}
+		}
+		return current;
+	}
+
+	private static Executor defaultExecutor() {
+		try {
+			return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.debug("Virtual threads are not available, running async work on a cached thread pool");
+			return Executors.newCachedThreadPool(runnable -> {
+				Thread thread = new Thread(runnable, "hibernate-async");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	void setConcurrency(DataSource ds, int permits) {
+		limits.put(ds, new AsyncLimit(permits, true));
+	}
+
+	/**
+	 * Drops a limit sized from the connection pool once a reload may have resized the pool.
+	 */
+	void reset(DataSource ds) {
+		limits.computeIfPresent(ds, (key, limit) -> limit.isConfigured() ? limit : null);
+	}
+
+	void remove(DataSource ds) {
+		limits.remove(ds);
+	}
+
+	<T> CompletableFuture<T> run(DataSource ds, HibernateSessionFactoryConfig config, Supplier<T> work) {
+		AsyncLimit limit = getLimit(ds, config);
+		Executor current = getExecutor();
+		return limit.submit(() -> {
+			if (!limit.isSized())
+				size(limit, config, current);
+			return work.get();
+		}, current);
+	}
+
+	/**
+	 * Sizes the limit from the connection pool if it is built; otherwise the
+	 * first task sizes it once it has built the SessionFactory.
+	 */
+	private AsyncLimit getLimit(DataSource ds, HibernateSessionFactoryConfig config) {
+		return limits.computeIfAbsent(ds, key -> config.getPoolMetrics()
+				.map(pool -> new AsyncLimit(pool.getMaximum(), false))
+				.orElseGet(AsyncLimit::unsized));
+	}
+
+	private static void size(AsyncLimit limit, HibernateSessionFactoryConfig config, Executor executor) {
+		try {
+			config.getOrBuildSessionFactory();
+		} finally {
+			limit.resize(config.getPoolMetrics()
+					.map(PoolMetrics::getMaximum)
+					.orElse(HibernateSessionFactory.DEFAULT_ASYNC_CONCURRENCY), executor);
+		}
+	}
+}
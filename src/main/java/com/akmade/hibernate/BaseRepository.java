@@ -1,17 +1,40 @@
 package com.akmade.hibernate;
 
 import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.util.PagedServicePackage;
+import org.hibernate.Cache;
+import org.hibernate.Criteria;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.criterion.Order;
+import org.hibernate.criterion.Restrictions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import static com.akmade.util.MessageUtility.MAKE_ERRORS;
+
 public class BaseRepository {
 	protected static Logger logger = LoggerFactory.getLogger(BaseRepository.class);
+	protected static final int BULK_ID_CHUNK = 1000;
 
 	protected static final UnrecoverableException logAndThrowError(String msg) throws UnrecoverableException {
 		logger.error(msg);
@@ -26,9 +49,20 @@ public class BaseRepository {
 	}
 
 
+    /**
+     * Runs the work with one session bound to the data source, so the queries and
+     * transactions it runs there share that session and commit together.
+     *
+     * @see SessionScope#supply(HibernateSessionFactory.DataSource, Supplier)
+     */
+    protected static final <X> X inSession(HibernateSessionFactory.DataSource ds, Supplier<X> work) {
+        return SessionScope.supply(ds, work);
+    }
+
     protected static final <X> Qry<X> saveOrUpdate(X x) {
         return session -> {
                 session.saveOrUpdate(x);
+                QryCache.invalidateAfterCompletion(session, x.getClass());
                 return Optional.of(x);
         };
     }
@@ -36,16 +70,145 @@ public class BaseRepository {
     protected static final <X> Qry<X> delete(X x) {
         return session -> {
                 session.delete(x);
+                QryCache.invalidateAfterCompletion(session, x.getClass());
                 return Optional.of(x);
         };
     }
 
+    /**
+     * Deletes every entity of the type matching the predicate with one set-based
+     * statement, without loading them. Cascades and entity listeners do not run.
+     * Pending changes are flushed first; the type is evicted from the session and caches.
+     *
+     * @return a query whose result is the number of rows deleted
+     */
+    protected static final <X> Qry<Integer> deleteWhere(Class<X> type, BulkPredicate<X> predicate) {
+        return session -> {
+            int deleted = executeDelete(session, type, predicate);
+            evict(session, type);
+            return Optional.of(deleted);
+        };
+    }
+
+    /**
+     * Deletes the entities with the given ids, in set-based statements of at most
+     * {@value #BULK_ID_CHUNK} ids each. Only those ids are evicted from the caches.
+     *
+     * @return a query whose result is the number of rows deleted
+     * @see #deleteWhere(Class, BulkPredicate)
+     */
+    protected static final <X> Qry<Integer> deleteByIds(Class<X> type, Collection<?> ids) {
+        return session -> {
+            int deleted = chunked(ids).stream()
+                    .mapToInt(chunk -> executeDelete(session, type, byIds(session, type, chunk)))
+                    .sum();
+            evict(session, type, ids);
+            return Optional.of(deleted);
+        };
+    }
+
+    /**
+     * Updates every entity of the type matching the predicate with one set-based
+     * statement, without loading them. Versions are not incremented.
+     * Pending changes are flushed first; the type is evicted from the session and caches.
+     *
+     * @return a query whose result is the number of rows updated
+     */
+    protected static final <X> Qry<Integer> updateWhere(Class<X> type, BulkPredicate<X> predicate, BulkAssignment<X> assignment) {
+        return session -> {
+            int updated = executeUpdate(session, type, predicate, assignment);
+            evict(session, type);
+            return Optional.of(updated);
+        };
+    }
+
+    /**
+     * Updates the entities with the given ids, in chunks of at most {@value #BULK_ID_CHUNK} ids.
+     * Only those ids are evicted from the caches.
+     *
+     * @return a query whose result is the number of rows updated
+     * @see #updateWhere(Class, BulkPredicate, BulkAssignment)
+     */
+    protected static final <X> Qry<Integer> updateByIds(Class<X> type, Collection<?> ids, BulkAssignment<X> assignment) {
+        return session -> {
+            int updated = chunked(ids).stream()
+                    .mapToInt(chunk -> executeUpdate(session, type, byIds(session, type, chunk), assignment))
+                    .sum();
+            evict(session, type, ids);
+            return Optional.of(updated);
+        };
+    }
+
+    private static <X> int executeDelete(Session session, Class<X> type, BulkPredicate<X> predicate) {
+        session.flush();
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaDelete<X> delete = cb.createCriteriaDelete(type);
+        Root<X> root = delete.from(type);
+        delete.where(predicate.apply(cb, root));
+        return session.createQuery(delete).executeUpdate();
+    }
+
+    private static <X> int executeUpdate(Session session, Class<X> type, BulkPredicate<X> predicate, BulkAssignment<X> assignment) {
+        session.flush();
+        CriteriaBuilder cb = session.getCriteriaBuilder();
+        CriteriaUpdate<X> update = cb.createCriteriaUpdate(type);
+        Root<X> root = update.from(type);
+        assignment.apply(cb, update, root);
+        update.where(predicate.apply(cb, root));
+        return session.createQuery(update).executeUpdate();
+    }
+
+    private static <X> BulkPredicate<X> byIds(Session session, Class<X> type, List<?> ids) {
+        EntityType<X> entity = session.getMetamodel().entity(type);
+        String idProperty = entity.getId(entity.getIdType().getJavaType()).getName();
+        return (cb, root) -> root.get(idProperty).in(ids);
+    }
+
+    private static List<List<?>> chunked(Collection<?> ids) {
+        List<?> all = new ArrayList<>(ids);
+        List<List<?>> chunks = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += BULK_ID_CHUNK)
+            chunks.add(all.subList(i, Math.min(i + BULK_ID_CHUNK, all.size())));
+        return chunks;
+    }
+
+    /**
+     * Evicts the entities of a type from the session, the second-level cache
+     * and the query caches, after a bulk statement has changed rows behind Hibernate's back.
+     */
+    private static <X> void evict(Session session, Class<X> type) {
+        evictFromSession(session, type, id -> true);
+        session.getSessionFactory().getCache().evictEntityData(type);
+        QryCache.invalidateAfterCompletion(session, type);
+    }
+
+    /**
+     * Evicts only the entities with the given ids from the session and the second-level cache.
+     */
+    private static <X> void evict(Session session, Class<X> type, Collection<?> ids) {
+        Set<?> stale = new HashSet<>(ids);
+        evictFromSession(session, type, stale::contains);
+        Cache cache = session.getSessionFactory().getCache();
+        stale.forEach(id -> cache.evictEntityData(type, (Serializable) id));
+        QryCache.invalidateAfterCompletion(session, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void evictFromSession(Session session, Class<?> type, java.util.function.Predicate<Object> isStale) {
+        Map<EntityKey, Object> managed = session.unwrap(SessionImplementor.class).getPersistenceContext().getEntitiesByKey();
+        List<Object> stale = managed.entrySet().stream()
+                .filter(entry -> type.isInstance(entry.getValue()) && isStale.test(entry.getKey().getIdentifier()))
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        stale.forEach(session::evict);
+    }
+
 	protected static final <X, Z> Function<Collection<X>, Collection<Z>> collectionMapper(Function<X,Z> mapper) {
 	    return collection -> collection.stream().map(mapper).collect(Collectors.toList());
     }
 
     protected static final <X,Z> Qry<Z> prepareQry(Qry<X> results, Function<X,Z> mapper) {
-	    return session -> results.execute(session).map(mapper);
+	    return results.map(mapper);
     }
 
     protected static final <X,Z> Qry<Z> prepareQry(Supplier<Qry<X>> results, Function<X,Z> mapper) {
@@ -61,5 +224,57 @@ public class BaseRepository {
                                 .map(mapper);
     }
 
+    /**
+     * Selects the entities a bulk statement applies to.
+     */
+    @FunctionalInterface
+    public interface BulkPredicate<X> {
+        Predicate apply(CriteriaBuilder cb, Root<X> root);
+    }
+
+    /**
+     * Sets the new values in a bulk update, e.g.
+     * {@code (cb, update, root) -> update.set(root.get("archived"), true)}.
+     */
+    @FunctionalInterface
+    public interface BulkAssignment<X> {
+        void apply(CriteriaBuilder cb, CriteriaUpdate<X> update, Root<X> root);
+    }
+
+    /**
+     * Prepares a keyset paged query: given the cursor from the previous page, or {@code null}
+     * for the first page, returns at most pageSize results ordered by the keyset's property,
+     * with a cursor for the next page if there are more. Only one page is loaded at a time.
+     *
+     * @param query the criteria selecting the results, without any ordering
+     * @param keyset the unique property to order and page by
+     * @param pageSize the maximum number of results on a page
+     * @return a function from cursor to the query for that page
+     */
+    protected static final <X, K> Function<String, Qry<PagedServicePackage<X>>> preparePagedQry(SessionUtility.CritQuery query, Keyset<X, K> keyset, int pageSize) {
+        if (pageSize < 1)
+            throw new IllegalArgumentException("Page size must be positive: " + pageSize);
+        // one more than a page tells whether there is a next page
+        int fetchSize = pageSize == Integer.MAX_VALUE ? pageSize : pageSize + 1;
+        return cursor ->
+                session -> {
+                    Criteria criteria = query.apply(session);
+                    if (cursor != null) {
+                        Optional<K> key = keyset.keyOf(cursor);
+                        if (!key.isPresent())
+                            return Optional.of(PagedServicePackage.empty(MAKE_ERRORS.apply("Invalid page cursor: " + cursor)));
+                        criteria.add(Restrictions.gt(keyset.getProperty(), key.get()));
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<X> results = criteria.addOrder(Order.asc(keyset.getProperty()))
+                            .setMaxResults(fetchSize)
+                            .list();
+                    if (results.size() <= pageSize)
+                        return Optional.of(PagedServicePackage.lastPage(results));
+                    List<X> page = new ArrayList<>(results.subList(0, pageSize));
+                    return Optional.of(PagedServicePackage.of(page, keyset.cursorAfter(page.get(pageSize - 1))));
+                };
+    }
+
 
 }
@@ -0,0 +1,177 @@
+package com.akmade.hibernate;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.akmade.hibernate.BaseRepository.logAndThrowError;
+import static com.akmade.hibernate.SessionUtility.*;
+
+/**
+ * Writes a stream of entities in JDBC batches. The session's batch size is
+ * set for the write, and the session is flushed and cleared after every
+ * batch, so statements go to the database a batch at a time and memory
+ * stays constant however many entities are written.
+ *
+ * Writing several entity types at once breaks a batch at every change of
+ * type unless the data source sets {@code hibernate.order_inserts} and
+ * {@code hibernate.order_updates}; versioned entities are only update
+ * batched with {@code hibernate.jdbc.batch_versioned_data}. Entities with
+ * IDENTITY generated ids cannot be insert batched by Hibernate; use a
+ * sequence or table generator for bulk loads.
+ *
+ * A bulk write reads its source once, so it can only be run once.
+ */
+public final class BulkWrite<X> implements Transaction.Txn<BulkWrite.Result> {
+	private static Logger logger = LoggerFactory.getLogger(BulkWrite.class);
+	public static final int DEFAULT_BATCH_SIZE = 50;
+
+	private final Stream<X> entities;
+	private final int batchSize;
+	private final BiConsumer<Session, ? super X> writer;
+
+	private BulkWrite(Builder<X> builder) {
+		this.entities = builder.entities_;
+		this.batchSize = builder.batchSize_;
+		this.writer = builder.writer_;
+	}
+
+	public static <X> Builder<X> newBuilder(Stream<X> entities) {
+		return new Builder<>(entities);
+	}
+
+	public static <X> Builder<X> newBuilder(Iterable<X> entities) {
+		return new Builder<>(StreamSupport.stream(entities.spliterator(), false));
+	}
+
+	/**
+	 * Writes the entities in the given session, which must have a transaction
+	 * begun. Entities already in the session are flushed and cleared with the
+	 * first batch.
+	 */
+	@Override
+	public Result execute(Session session) {
+		Integer previousBatchSize = session.getJdbcBatchSize();
+		session.setJdbcBatchSize(batchSize);
+		long start = System.nanoTime();
+		long written = 0;
+		Set<Class<?>> types = new HashSet<>();
+		try (Stream<X> source = entities) {
+			Iterator<X> iterator = source.iterator();
+			while (iterator.hasNext()) {
+				X entity = iterator.next();
+				writer.accept(session, entity);
+				if (types.add(entity.getClass()))
+					QryCache.invalidateAfterCompletion(session, entity.getClass());
+				if (++written % batchSize == 0) {
+					session.flush();
+					session.clear();
+				}
+			}
+			session.flush();
+			session.clear();
+		} finally {
+			session.setJdbcBatchSize(previousBatchSize);
+		}
+		Result result = new Result(written, System.nanoTime() - start);
+		logger.info("Bulk write: " + result);
+		return result;
+	}
+
+	/**
+	 * Writes the entities in a new session and transaction, committing at the
+	 * end, or in the session bound to the data source if it is run within a
+	 * {@link SessionScope}, in which case it commits when the scope ends. The
+	 * bound session is flushed and cleared like one of its own.
+	 */
+	public Result run(DataSource ds) {
+		Optional<SessionScope> scope = SessionScope.current(ds);
+		if (scope.isPresent())
+			return scope.get().execute(this::execute, "bulk write");
+		Session session = createSession(ds);
+		try {
+			return this.execute(session);
+		} catch (Exception e) {
+			rollbackAndClose(session);
+			throw logAndThrowError("Error running the bulk write. " + e.getMessage());
+		} finally {
+			endSession(session);
+		}
+	}
+
+	/**
+	 * How many entities a bulk write wrote, and how fast.
+	 */
+	public static final class Result {
+		private final long written;
+		private final long elapsedNanos;
+
+		private Result(long written, long elapsedNanos) {
+			this.written = written;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public long getWritten() {
+			return written;
+		}
+
+		public long getElapsed(TimeUnit unit) {
+			return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+		}
+
+		public double getPerSecond() {
+			return elapsedNanos == 0 ? 0 : written * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return written + " entities in " + getElapsed(TimeUnit.MILLISECONDS) + " ms ("
+					+ Math.round(getPerSecond()) + "/s)";
+		}
+	}
+
+	public static class Builder<X> {
+		Stream<X> entities_;
+		int batchSize_ = DEFAULT_BATCH_SIZE;
+		BiConsumer<Session, ? super X> writer_ = Session::saveOrUpdate;
+
+		private Builder(Stream<X> entities) {
+			entities_ = Objects.requireNonNull(entities);
+		}
+
+		/**
+		 * @param batchSize the number of entities per JDBC batch, and between flushes
+		 * @return this builder
+		 */
+		public Builder<X> batchSize(int batchSize) {
+			if (batchSize < 1)
+				throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+			batchSize_ = batchSize;
+			return this;
+		}
+
+		/**
+		 * @param writer how each entity is written; defaults to saveOrUpdate
+		 * @return this builder
+		 */
+		public Builder<X> writeWith(BiConsumer<Session, ? super X> writer) {
+			writer_ = Objects.requireNonNull(writer);
+			return this;
+		}
+
+		public BulkWrite<X> build() {
+			return new BulkWrite<>(this);
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package com.akmade.hibernate;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.service.UnknownUnwrapTypeException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A HikariCP connection pool for one data source, handed to Hibernate as its
+ * ConnectionProvider and closed with the SessionFactory that uses it.
+ *
+ * <p>A data source uses a pool when its properties set {@value #POOL} to
+ * {@value #HIKARI}. The pool connects with the standard
+ * {@code hibernate.connection.url}, {@code username}, {@code password} and
+ * {@code driver_class} properties, sizes itself from
+ * {@code hibernate.connection.pool_size}, and takes any other HikariCP
+ * setting with a {@value #HIKARI_PREFIX} prefix, e.g.
+ * {@code hikari.connectionTimeout}.
+ */
+public class ConnectionPool implements AutoCloseable {
+	public static final String POOL = "akmade.hibernate.pool";
+	public static final String HIKARI = "hikari";
+	public static final String HIKARI_PREFIX = "hikari.";
+
+	private final HikariDataSource dataSource;
+	private final LatencyHistogram acquisition = new LatencyHistogram();
+	private final LatencyHistogram usage = new LatencyHistogram();
+	private final LongAdder timeouts = new LongAdder();
+
+	private ConnectionPool(HikariConfig config) {
+		config.setMetricsTrackerFactory(new Tracker());
+		this.dataSource = new HikariDataSource(config);
+	}
+
+	static boolean isConfigured(Properties properties) {
+		return HIKARI.equalsIgnoreCase(properties.getProperty(POOL, "").trim());
+	}
+
+	static ConnectionPool create(Properties properties) {
+		Properties hikari = new Properties();
+		copy(properties, AvailableSettings.URL, hikari, "jdbcUrl");
+		copy(properties, AvailableSettings.USER, hikari, "username");
+		copy(properties, AvailableSettings.PASS, hikari, "password");
+		copy(properties, AvailableSettings.DRIVER, hikari, "driverClassName");
+		copy(properties, AvailableSettings.POOL_SIZE, hikari, "maximumPoolSize");
+		for (String key : properties.stringPropertyNames()) {
+			if (key.startsWith(HIKARI_PREFIX))
+				hikari.setProperty(key.substring(HIKARI_PREFIX.length()), properties.getProperty(key));
+		}
+		return new ConnectionPool(new HikariConfig(hikari));
+	}
+
+	private static void copy(Properties from, String key, Properties to, String hikariKey) {
+		String value = from.getProperty(key);
+		if (value != null)
+			to.setProperty(hikariKey, value.trim());
+	}
+
+	/**
+	 * Points hibernate settings at this pool. The pool is handed over as a
+	 * ConnectionProvider rather than a DataSource, because Hibernate asks a
+	 * DataSource for connections by username and password whenever they are
+	 * set, which a pool does not support.
+	 */
+	void applyTo(Properties settings) {
+		settings.put(AvailableSettings.CONNECTION_PROVIDER, new Provider());
+	}
+
+	public PoolMetrics getMetrics() {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return new PoolMetrics(
+				pool == null ? 0 : pool.getActiveConnections(),
+				pool == null ? 0 : pool.getIdleConnections(),
+				pool == null ? 0 : pool.getThreadsAwaitingConnection(),
+				pool == null ? 0 : pool.getTotalConnections(),
+				dataSource.getMaximumPoolSize(),
+				timeouts.sum(),
+				acquisition.snapshot(),
+				usage.snapshot());
+	}
+
+	@Override
+	public void close() {
+		dataSource.close();
+	}
+
+	private class Provider implements ConnectionProvider {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			return dataSource.getConnection();
+		}
+
+		@Override
+		public void closeConnection(Connection conn) throws SQLException {
+			conn.close();
+		}
+
+		@Override
+		public boolean supportsAggressiveRelease() {
+			return false;
+		}
+
+		@Override
+		@SuppressWarnings("rawtypes") // Wrapped declares the raw type, so the override cannot narrow it
+		public boolean isUnwrappableAs(Class unwrapType) {
+			return unwrapType.isInstance(this) || unwrapType.isInstance(dataSource);
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <T> T unwrap(Class<T> unwrapType) {
+			if (unwrapType.isInstance(this))
+				return (T) this;
+			if (unwrapType.isInstance(dataSource))
+				return (T) dataSource;
+			throw new UnknownUnwrapTypeException(unwrapType);
+		}
+	}
+
+	private class Tracker implements MetricsTrackerFactory, IMetricsTracker {
+		@Override
+		public IMetricsTracker create(String poolName, PoolStats poolStats) {
+			return this;
+		}
+
+		@Override
+		public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+			acquisition.record(elapsedAcquiredNanos);
+		}
+
+		@Override
+		public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+			usage.record(TimeUnit.MILLISECONDS.toNanos(elapsedBorrowedMillis));
+		}
+
+		@Override
+		public void recordConnectionTimeout() {
+			timeouts.increment();
+		}
+	}
+}
@@ -0,0 +1,31 @@
+package com.akmade.hibernate;
+
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+
+import javax.cache.Cache;
+import javax.cache.CacheException;
+import javax.cache.CacheManager;
+import javax.cache.configuration.MutableConfiguration;
+
+/**
+ * A JCache region factory that creates a region the provider has no
+ * configuration for with the provider's defaults, where Hibernate's own
+ * fails the SessionFactory build.
+ */
+public class DefaultingJCacheRegionFactory extends JCacheRegionFactory {
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected Cache<Object, Object> createCache(String regionName) {
+		CacheManager cacheManager = getCacheManager();
+		try {
+			return cacheManager.createCache(regionName, new MutableConfiguration<>());
+		} catch (CacheException e) {
+			// created concurrently by another SessionFactory on the same cache manager
+			Cache<Object, Object> cache = cacheManager.getCache(regionName);
+			if (cache == null)
+				throw e;
+			return cache;
+		}
+	}
+}
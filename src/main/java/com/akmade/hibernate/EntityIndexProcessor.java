@@ -0,0 +1,88 @@
+package com.akmade.hibernate;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Writes the names of all {@code @Entity} classes being compiled to
+ * {@link #INDEX_RESOURCE}, so {@link HibernateSessionFactoryConfig} can add
+ * them without scanning the classpath at startup.
+ *
+ * Runs automatically for any project compiled with this library on its
+ * classpath, through META-INF/services/javax.annotation.processing.Processor.
+ * An incremental build compiles only some classes, so the entities already in
+ * the output's index are kept, as long as they are still entities.
+ */
+@SupportedAnnotationTypes("javax.persistence.Entity")
+public class EntityIndexProcessor extends AbstractProcessor {
+	public static final String INDEX_RESOURCE = "META-INF/akmade/hibernate-entities";
+	private static final String ENTITY = "javax.persistence.Entity";
+
+	private final Set<String> entities = new TreeSet<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement)
+					entities.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+			}
+		}
+		if (roundEnv.processingOver() && !entities.isEmpty())
+			writeIndex();
+		return false;
+	}
+
+	private void writeIndex() {
+		Set<String> merged = readIndex();
+		merged.addAll(entities);
+		try {
+			FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			try (Writer writer = index.openWriter()) {
+				for (String entity : merged)
+					writer.write(entity + "\n");
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Could not write the entity index: " + e.getMessage());
+		}
+	}
+
+	private Set<String> readIndex() {
+		Set<String> indexed = new TreeSet<>();
+		try {
+			FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			try (BufferedReader reader = new BufferedReader(existing.openReader(true))) {
+				reader.lines()
+						.map(String::trim)
+						.filter(name -> !name.isEmpty() && isEntity(name))
+						.forEach(indexed::add);
+			}
+		} catch (IOException e) {
+			// there is no index yet
+		}
+		return indexed;
+	}
+
+	private boolean isEntity(String binaryName) {
+		TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+		return type != null && type.getAnnotationMirrors().stream()
+				.anyMatch(mirror -> ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(ENTITY));
+	}
+}
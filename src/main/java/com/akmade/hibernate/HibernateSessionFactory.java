@@ -5,24 +5,94 @@ import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.StatelessSession;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import com.akmade.exceptions.UnrecoverableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
- * Configures and provides access to Hibernate sessions, tied to the
- * current thread of execution.  Follows the Thread Local Session
- * pattern, see http://hibernate.org/42.html
+ * Configures and provides access to Hibernate sessions. Sessions shared
+ * across several queries are bound with a {@link SessionScope}.
  */
 public class HibernateSessionFactory {
-    public enum DataSource
+	private static Logger logger = LoggerFactory.getLogger(HibernateSessionFactory.class);
+	public static final int DEFAULT_ASYNC_CONCURRENCY = 10;
+    /**
+     * The name of a data source registered with the factory. DEFAULT is
+     * registered from hibernate.properties when the factory is created;
+     * any others are registered with {@link #register(DataSource, Properties)}.
+     */
+    public static final class DataSource
     {
-    	DEFAULT
+    	public static final DataSource DEFAULT = new DataSource("DEFAULT");
+    	private final String name;
+
+    	private DataSource(String name) {
+    		this.name = Objects.requireNonNull(name);
+    	}
+
+    	public static DataSource named(String name) {
+    		return DEFAULT.name.equals(name) ? DEFAULT : new DataSource(name);
+    	}
+
+    	public String name() {
+    		return name;
+    	}
+
+    	@Override
+    	public boolean equals(Object o) {
+    		return this == o || (o instanceof DataSource && name.equals(((DataSource) o).name));
+    	}
+
+    	@Override
+    	public int hashCode() {
+    		return name.hashCode();
+    	}
+
+    	@Override
+    	public String toString() {
+    		return name;
+    	}
+    }
+
+    /**
+     * When a registered data source builds its SessionFactory.
+     */
+    public enum Initialization
+    {
+    	/** On the first session requested from it. */
+    	LAZY,
+    	/** As soon as it is registered. */
+    	EAGER
     }
     
-    private Map<DataSource, HibernateSessionFactoryConfig> sessionFactories = new HashMap<>(); 
-    private static HibernateSessionFactory instance;
+    private final ConcurrentMap<DataSource, HibernateSessionFactoryConfig> sessionFactories = new ConcurrentHashMap<>(); 
+    private final ConcurrentMap<DataSource, ReplicaSet> replicaSets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<DataSource, Warmup> warmups = new ConcurrentHashMap<>();
+    private final AsyncRunner asyncRunner = new AsyncRunner();
+    private final Reloader reloader = new Reloader(sessionFactories::get, asyncRunner::reset);
+    private volatile CompletableFuture<Void> readiness = CompletableFuture.completedFuture(null);
 
     
     /**
@@ -32,16 +102,18 @@ public class HibernateSessionFactory {
     	initSessionFactories();
     }
 
+    /**
+     * Holds the instance; the JVM initializes it exactly once, on first use,
+     * so getInstance() needs no locking.
+     */
+    private static class InstanceHolder {
+    	private static final HibernateSessionFactory INSTANCE = new HibernateSessionFactory();
+    }
+
     public static HibernateSessionFactory getInstance() {
-		if(instance == null){
-			synchronized(HibernateSessionFactory.class)
-			{
-				instance = new HibernateSessionFactory();
-			}
-        }
-        return instance;
+        return InstanceHolder.INSTANCE;
     }
-    
+
 	/**
 	 * Get the name of the primary key column for the provided hibernate class
 	 * 
@@ -54,16 +126,351 @@ public class HibernateSessionFactory {
 	
 	
 	public <T> String getIdentifyingPropertyName(Class<T> clzz, DataSource ds){
-		return sessionFactories.get(ds).getSessionFactory().getClassMetadata(clzz).getIdentifierPropertyName();
+		return getSessionFactory(ds).getClassMetadata(clzz).getIdentifierPropertyName();
+	}
+
+	/**
+	 * Registers a data source built from the given properties, replacing and
+	 * closing any data source already registered under the same name.
+	 *
+	 * @param ds the name to register the data source under
+	 * @param properties the hibernate properties for the data source
+	 * @param initialization whether to build the SessionFactory now or on first use
+	 */
+	public void register(DataSource ds, Properties properties, Initialization initialization) {
+		register(ds, new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), properties), initialization);
+	}
+
+	public void register(DataSource ds, Properties properties) {
+		register(ds, properties, Initialization.LAZY);
+	}
+
+	/**
+	 * Registers a data source built from a properties resource on the classpath.
+	 *
+	 * @throws UnrecoverableException if the resource does not exist
+	 */
+	public void register(DataSource ds, String propertyFile, Initialization initialization) {
+		register(ds, new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), propertyFile), initialization);
+	}
+
+	private void register(DataSource ds, HibernateSessionFactoryConfig config, Initialization initialization) {
+		if (initialization == Initialization.EAGER)
+			config.rebuildSessionFactory();
+		HibernateSessionFactoryConfig previous = sessionFactories.put(ds, config);
+		asyncRunner.remove(ds);
+		if (previous != null)
+			previous.retireSessionFactory();
+	}
+
+	/**
+	 * Removes a data source and closes its SessionFactory.
+	 */
+	public void unregister(DataSource ds) {
+		unwatch(ds);
+		asyncRunner.remove(ds);
+		replicaSets.remove(ds);
+		HibernateSessionFactoryConfig previous = sessionFactories.remove(ds);
+		if (previous != null)
+			previous.retireSessionFactory();
+	}
+
+	/**
+	 * Rebuilds the data source's SessionFactory from new properties in the
+	 * background. New sessions switch to it once it is built; sessions open
+	 * on the old SessionFactory finish on it, and it is closed when the last
+	 * of them ends or the drain timeout runs out. If the build fails the old
+	 * SessionFactory stays in use.
+	 *
+	 * @param ds the data source to reload
+	 * @param properties the new hibernate properties
+	 * @return a future completed with whether the new properties were applied
+	 */
+	public CompletableFuture<Boolean> reload(DataSource ds, Properties properties) {
+		return reloader.reload(ds, getConfig(ds), properties);
+	}
+
+	/**
+	 * Reads the data source's property file again and reloads from it in the background.
+	 *
+	 * @return a future completed with whether the properties were applied
+	 * @see #reload(DataSource, Properties)
+	 */
+	public CompletableFuture<Boolean> reload(DataSource ds) {
+		return reloader.reloadPropertyFile(ds, getConfig(ds));
+	}
+
+	/**
+	 * Polls the data source's property file and reloads the data source
+	 * whenever the file changes. Only data sources registered from a
+	 * property file can be watched.
+	 *
+	 * @param ds the data source to watch
+	 * @param period how often to check the property file
+	 * @param unit the unit of the period
+	 */
+	public void watch(DataSource ds, long period, TimeUnit unit) {
+		reloader.watch(ds, getConfig(ds), period, unit);
+	}
+
+	/**
+	 * Checks a watched data source's property file now, as its next poll would.
+	 *
+	 * @return a future completed with whether the file had changed and the data source was reloaded
+	 * @throws UnrecoverableException if the data source is not watched
+	 */
+	public CompletableFuture<Boolean> checkPropertyFile(DataSource ds) {
+		return reloader.check(ds);
+	}
+
+	public void unwatch(DataSource ds) {
+		reloader.unwatch(ds);
+	}
+
+	/**
+	 * Sets the executor that {@link #runAsync(DataSource, Supplier)} runs work on.
+	 * Each task blocks for its database round-trip, so the executor should not
+	 * be one with few threads, such as the common pool.
+	 */
+	public void setAsyncExecutor(Executor executor) {
+		asyncRunner.setExecutor(executor);
+	}
+
+	/**
+	 * @return the async executor; by default a new virtual thread per task
+	 * 	when the JVM has them, otherwise a cached pool of daemon threads
+	 */
+	public Executor getAsyncExecutor() {
+		return asyncRunner.getExecutor();
+	}
+
+	/**
+	 * Limits how much async work runs on the data source at once; further
+	 * work is queued, without holding a thread, until a permit is free. The
+	 * limit defaults to the size of the data source's connection pool, or
+	 * {@value #DEFAULT_ASYNC_CONCURRENCY} without one, so async fan-out
+	 * queues here instead of starving the pool. A limit set here is kept
+	 * across reloads; the default is sized again from the reloaded pool.
+	 */
+	public void setAsyncConcurrency(DataSource ds, int permits) {
+		if (permits < 1)
+			throw new IllegalArgumentException("Concurrency must be positive: " + permits);
+		getConfig(ds);
+		asyncRunner.setConcurrency(ds, permits);
+	}
+
+	/**
+	 * Runs blocking work against the data source on the async executor,
+	 * within the data source's concurrency limit. The work inherits the
+	 * caller's {@link SessionScope} bindings. A data source that is not
+	 * built yet is built on the executor, never on the calling thread.
+	 *
+	 * @param ds the data source the work uses
+	 * @param work the work, e.g. running a query
+	 * @return a future completed with the work's result, or exceptionally if it throws
+	 */
+	public <T> CompletableFuture<T> runAsync(DataSource ds, Supplier<T> work) {
+		Objects.requireNonNull(work);
+		return asyncRunner.run(ds, getConfig(ds), SessionScope.wrap(work));
+	}
+
+	/**
+	 * Routes read-only queries against the primary data source to its replicas.
+	 * The primary and every replica must be registered data sources; writes
+	 * and transactions keep using the primary.
+	 *
+	 * @param primary the data source the replicas copy
+	 * @param replicas the read replicas of the primary
+	 * @param loadBalancing how reads are spread across the replicas
+	 */
+	public void registerReplicas(DataSource primary, List<DataSource> replicas, ReplicaSet.LoadBalancing loadBalancing) {
+		getConfig(primary);
+		replicas.forEach(this::getConfig);
+		replicaSets.put(primary, new ReplicaSet(primary, replicas, loadBalancing));
+	}
+
+	public void unregisterReplicas(DataSource primary) {
+		replicaSets.remove(primary);
+	}
+
+	/**
+	 * @return the replicas of the data source, or a set with only the primary if it has none
+	 */
+	public ReplicaSet getReplicaSet(DataSource ds) {
+		ReplicaSet replicaSet = replicaSets.get(ds);
+		return replicaSet != null
+				? replicaSet
+				: new ReplicaSet(ds, Collections.emptyList(), ReplicaSet.LoadBalancing.ROUND_ROBIN);
+	}
+
+	public Set<DataSource> getDataSources() {
+		return Collections.unmodifiableSet(sessionFactories.keySet());
+	}
+
+	public boolean isRegistered(DataSource ds) {
+		return sessionFactories.containsKey(ds);
+	}
+
+	/**
+	 * Returns the SessionFactory for the data source, building it if needed.
+	 */
+	public SessionFactory getSessionFactory(DataSource ds) {
+		return getConfig(ds).getOrBuildSessionFactory();
+	}
+
+	/**
+	 * Returns the state of the data source's connection pool: checked out,
+	 * idle and waiting counts, and how long checkouts wait.
+	 *
+	 * @return the pool metrics, or empty if the data source has no pool or is not built yet
+	 * @see ConnectionPool
+	 */
+	public Optional<PoolMetrics> getPoolMetrics(DataSource ds) {
+		return getConfig(ds).getPoolMetrics();
+	}
+
+	/**
+	 * @return the Hibernate statistics of the data source, gathered when it caches
+	 * 	or {@code hibernate.generate_statistics} is set
+	 * @see SecondLevelCache
+	 */
+	public Statistics getStatistics(DataSource ds) {
+		return getSessionFactory(ds).getStatistics();
+	}
+
+	/**
+	 * @return the hit, miss and put counts of each second-level and query cache region, by region name
+	 */
+	public Map<String, CacheRegionStatistics> getCacheRegionStatistics(DataSource ds) {
+		Statistics statistics = getStatistics(ds);
+		Map<String, CacheRegionStatistics> regions = new TreeMap<>();
+		for (String region : statistics.getSecondLevelCacheRegionNames()) {
+			CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+			if (regionStatistics != null)
+				regions.put(region, regionStatistics);
+		}
+		return regions;
+	}
+
+	/**
+	 * Evicts every instance of the entity type from the data source's second-level cache.
+	 */
+	public void evictEntity(DataSource ds, Class<?> type) {
+		getSessionFactory(ds).getCache().evictEntityData(type);
+	}
+
+	public void evictEntity(DataSource ds, Class<?> type, Serializable id) {
+		getSessionFactory(ds).getCache().evictEntityData(type, id);
+	}
+
+	public void evictQueryRegions(DataSource ds) {
+		getSessionFactory(ds).getCache().evictQueryRegions();
+	}
+
+	/**
+	 * Empties every second-level and query cache region of the data source.
+	 */
+	public void evictCache(DataSource ds) {
+		getSessionFactory(ds).getCache().evictAllRegions();
+	}
+
+	HibernateSessionFactoryConfig getConfig(DataSource ds) {
+		HibernateSessionFactoryConfig sessConfig = sessionFactories.get(ds);
+		if (sessConfig == null)
+			throw new UnrecoverableException("No data source registered as " + ds);
+		return sessConfig;
 	}
 
     
     
     
     private void initSessionFactories() {
-    	sessionFactories.put(DataSource.DEFAULT, new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), "hibernate.properties"));
-		sessionFactories.get(DataSource.DEFAULT).rebuildSessionFactory();
+    	try {
+    		register(DataSource.DEFAULT, "hibernate.properties", Initialization.LAZY);
+    	} catch (UnrecoverableException e) {
+    		logger.warn("No hibernate.properties found, the DEFAULT data source is not registered");
+    	}
     }
+
+	/**
+	 * Sets the warm-up run on the data source by {@link #bootstrap()}.
+	 */
+	public void setWarmup(DataSource ds, Warmup warmup) {
+		getConfig(ds);
+		warmups.put(ds, warmup);
+	}
+
+	/**
+	 * Builds every registered data source in the background, in parallel,
+	 * then warms each one up. Sessions can still be requested meanwhile; a
+	 * data source that is not built yet is built on the requesting thread.
+	 *
+	 * @return the readiness future, completed when every data source is built
+	 * 	and warmed up, or exceptionally if any could not be built
+	 */
+	public CompletableFuture<Void> bootstrap() {
+		List<DataSource> dataSources = new ArrayList<>(sessionFactories.keySet());
+		ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, dataSources.size()), runnable -> {
+			Thread thread = new Thread(runnable, "hibernate-bootstrap");
+			thread.setDaemon(true);
+			return thread;
+		});
+		CompletableFuture<Void> future = bootstrap(dataSources, executor);
+		future.whenComplete((v, e) -> executor.shutdown());
+		return future;
+	}
+
+	/**
+	 * Builds and warms up every registered data source on the given executor.
+	 *
+	 * @return the readiness future
+	 */
+	public CompletableFuture<Void> bootstrap(Executor executor) {
+		return bootstrap(new ArrayList<>(sessionFactories.keySet()), executor);
+	}
+
+	private CompletableFuture<Void> bootstrap(List<DataSource> dataSources, Executor executor) {
+		CompletableFuture<Void> future = CompletableFuture.allOf(dataSources.stream()
+				.map(ds -> CompletableFuture.runAsync(() -> buildAndWarm(ds), executor))
+				.toArray(CompletableFuture[]::new));
+		readiness = future;
+		return future;
+	}
+
+	/**
+	 * @return the future returned by the last {@link #bootstrap()}, or a completed
+	 * 	future if there has been none; gate traffic on it to avoid cold starts
+	 */
+	public CompletableFuture<Void> readiness() {
+		return readiness;
+	}
+
+	private void buildAndWarm(DataSource ds) {
+		long start = System.currentTimeMillis();
+		SessionFactory sessionFactory = getSessionFactory(ds);
+		if (sessionFactory == null)
+			throw new UnrecoverableException("Could not build the SessionFactory for " + ds);
+		Warmup warmup = warmups.getOrDefault(ds, Warmup.NONE);
+		HibernateSessionFactoryConfig config = getConfig(ds);
+		List<Session> sessions = new ArrayList<>();
+		try {
+			for (int i = 0; i < warmup.getConnections(); i++) {
+				Session session = config.openSession();
+				sessions.add(session);
+				session.doWork(connection -> {});
+			}
+		} finally {
+			sessions.forEach(Session::close);
+		}
+		for (Qry<?> qry : warmup.getQueries()) {
+			try {
+				qry.run(ds);
+			} catch (RuntimeException e) {
+				logger.warn("Warm-up query failed on " + ds, e);
+			}
+		}
+		logger.info("Data source " + ds + " ready in " + (System.currentTimeMillis() - start) + " ms");
+	}
     
     /**
      * 
@@ -78,10 +485,17 @@ public class HibernateSessionFactory {
 	 * Returns the ThreadLocal Session instance.  Lazy initialize
 	 * the <code>SessionFactory</code> if needed.
 	 *
-	 * @return Session
+	 * @return the session bound by the current {@link SessionScope}, if any,
+	 * 	otherwise the ThreadLocal Session
+	 * @deprecated ThreadLocal sessions are never closed and stay on pooled
+	 * 	threads; use {@link SessionScope#supply(DataSource, Supplier)} instead
 	 */
+    @Deprecated
     public Session getSession(DataSource ds)  {
-    	ThreadLocal<Session> threadLocal = sessionFactories.get(ds).getSession();
+    	Optional<Session> scoped = SessionScope.currentSession(ds);
+    	if (scoped.isPresent())
+    		return scoped.get();
+    	ThreadLocal<Session> threadLocal = getConfig(ds).getSession();
 		if (threadLocal.get() == null || ! threadLocal.get().isOpen())
 			threadLocal.set(createSession(ds));
 		return threadLocal.get();
@@ -103,11 +517,8 @@ public class HibernateSessionFactory {
      */
     public Session createSession(DataSource ds){
     	Session session = null;
-    	HibernateSessionFactoryConfig sessConfig = sessionFactories.get(ds);
     	try {
-			if (sessConfig.getSessionFactory() == null) 
-				sessConfig.rebuildSessionFactory();
-			session = (sessConfig.getSessionFactory() != null) ? sessConfig.getSessionFactory().openSession() : null;
+			session = getConfig(ds).openSession();
         }catch(HibernateException he){
         	UnrecoverableException cue = new UnrecoverableException(he.toString());
         	cue.addSuppressed(he);
@@ -116,13 +527,44 @@ public class HibernateSessionFactory {
         return session;
     }
     
+    /**
+     * Creates a new Hibernate Session for reading, on one of the data source's
+     * replicas if it has any, otherwise on the data source itself. The session
+     * connects straight away, so an unreachable replica is passed over here
+     * rather than failing the first query.
+     * 
+     * @return a new Hibernate Session
+     */
+    public Session createReadSession(DataSource ds) {
+    	return createReadSession(ds, session -> session.doWork(connection -> {}));
+    }
+
+    /**
+     * Creates a read session and begins it with the given preparation, which
+     * falls back to the data source itself if it fails on the replica.
+     */
+    Session createReadSession(DataSource ds, Consumer<Session> begin) {
+    	ReplicaSet replicaSet = replicaSets.get(ds);
+    	if (replicaSet != null)
+    		return replicaSet.openReadSession(this, begin);
+    	Session session = createSession(ds);
+    	try {
+    		begin.accept(session);
+    		return session;
+    	} catch (RuntimeException e) {
+    		session.close();
+    		throw e;
+    	}
+    }
+    
+    /**
+     * Creates a new StatelessSession. Like other sessions it is tracked, so a
+     * rebuild or unregister waits for it to close, up to the drain timeout.
+     */
     public StatelessSession createStatelessSession(DataSource ds){
     	StatelessSession session = null;
-    	HibernateSessionFactoryConfig sessConfig = sessionFactories.get(ds);
     	try {
-			if (sessConfig.getSessionFactory() == null) 
-				sessConfig.rebuildSessionFactory();
-			session = (sessConfig.getSessionFactory() != null) ? sessConfig.getSessionFactory().openStatelessSession() : null;
+			session = getConfig(ds).openStatelessSession();
         }catch(HibernateException he){
         	UnrecoverableException cue = new UnrecoverableException(he.toString());
         	cue.addSuppressed(he);
@@ -132,12 +574,11 @@ public class HibernateSessionFactory {
     }
     
     /**
-     * Closes the session factory
+     * Closes the session factory. The data source builds no new one; register
+     * it again to use it.
      */
     public void closeSessionFactory(DataSource ds){
-    	SessionFactory sessionFactory = sessionFactories.get(ds).getSessionFactory();
-    	if (sessionFactory != null)
-    		sessionFactory.close();
+    	getConfig(ds).closeSessionFactory();
     }
     
     /**
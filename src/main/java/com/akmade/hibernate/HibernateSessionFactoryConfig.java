@@ -1,38 +1,121 @@
 package com.akmade.hibernate;
 
+import com.akmade.exceptions.UnrecoverableException;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
-import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistry;
 import org.reflections.Reflections;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 public class HibernateSessionFactoryConfig {
+	public static final String ENTITY_PACKAGES = "akmade.hibernate.entity_packages";
+	public static final String DEFAULT_ENTITY_PACKAGE = "org.seasailing.db.hibernate";
+	public static final String DRAIN_TIMEOUT = "akmade.hibernate.drain_timeout_ms";
+	public static final long DEFAULT_DRAIN_TIMEOUT = 30000L;
 	private static Logger logger = LoggerFactory.getLogger(HibernateSessionFactoryConfig.class);
-	private SessionFactory sessionFactory = null;
+	private final AtomicReference<SessionFactoryGeneration> current = new AtomicReference<>();
+	private final Object rebuildLock = new Object();
+	private CompletableFuture<Void> rebuilding = null;
+	private boolean closed = false;
 	private ThreadLocal<Session> session = null;
 	private String propertyFile = "hibernate.properties";
-	private Properties properties = null;
-    private static ServiceRegistry serviceRegistry;
+	private volatile Properties properties = null;
 	
+	/**
+	 * @throws UnrecoverableException if the property file is not on the classpath;
+	 * 	before data sources were registered by name this was logged and the
+	 * 	config was left without properties
+	 */
 	public HibernateSessionFactoryConfig(SessionFactory factory, ThreadLocal<Session> sess, String file) {
-		sessionFactory = factory;
+		if (factory != null)
+			setSessionFactory(factory);
 		session = sess;
 		setPropertyFile(file);
 	}
+
+	public HibernateSessionFactoryConfig(SessionFactory factory, ThreadLocal<Session> sess, Properties props) {
+		if (factory != null)
+			setSessionFactory(factory);
+		session = sess;
+		propertyFile = null;
+		Properties copy = new Properties();
+		copy.putAll(props);
+		properties = copy;
+	}
 	
+	/**
+	 * @return the current SessionFactory, or {@code null} if none has been built
+	 */
 	public SessionFactory getSessionFactory() {
-		return sessionFactory;
+		SessionFactoryGeneration generation = current.get();
+		return generation == null ? null : generation.getSessionFactory();
 	}
+
+	/**
+	 * Switches new sessions to the given SessionFactory. The previous one is
+	 * closed once the sessions still open on it have ended.
+	 */
 	public void setSessionFactory(SessionFactory sessionFactory) {
-		this.sessionFactory = sessionFactory;
+		swap(new SessionFactoryGeneration(sessionFactory));
+	}
+
+	private void swap(SessionFactoryGeneration generation) {
+		SessionFactoryGeneration previous = current.getAndSet(generation);
+		if (previous != null)
+			previous.retire(getDrainTimeout());
+	}
+
+	/**
+	 * @return how long a retired SessionFactory waits for its open sessions to
+	 * 	end before it is closed anyway, from the {@value #DRAIN_TIMEOUT} property
+	 */
+	Duration getDrainTimeout() {
+		String value = properties == null ? null : properties.getProperty(DRAIN_TIMEOUT);
+		if (value == null)
+			return Duration.ofMillis(DEFAULT_DRAIN_TIMEOUT);
+		try {
+			return Duration.ofMillis(Long.parseLong(value.trim()));
+		} catch (NumberFormatException e) {
+			logger.warn("Invalid " + DRAIN_TIMEOUT + ": " + value + ", using " + DEFAULT_DRAIN_TIMEOUT);
+			return Duration.ofMillis(DEFAULT_DRAIN_TIMEOUT);
+		}
+	}
+
+	/**
+	 * @return the state of the connection pool, if the data source uses one
+	 * 	and its SessionFactory has been built
+	 */
+	public Optional<PoolMetrics> getPoolMetrics() {
+		SessionFactoryGeneration generation = current.get();
+		return generation == null || generation.getPool() == null
+				? Optional.empty()
+				: Optional.of(generation.getPool().getMetrics());
 	}
 	public ThreadLocal<Session> getSession() {
 		return session;
@@ -43,14 +126,21 @@ public class HibernateSessionFactoryConfig {
 	public String getPropertyFile() {
 		return propertyFile;
 	}
+	/**
+	 * @throws UnrecoverableException if the property file is not on the classpath
+	 */
 	public void setPropertyFile(String propertyFile) {
-    	if (doesResourceExist(propertyFile)) {
-    		this.propertyFile = propertyFile;    		
-    	}
+    	if (!doesResourceExist(propertyFile))
+    		throw new UnrecoverableException("Property file not found: " + propertyFile);
+		this.propertyFile = propertyFile;
 		setProperties();
 	}
 	
 	private void setProperties() {
+		this.properties = loadProperties();
+	}
+
+	private Properties loadProperties() {
 		Properties prop = new Properties();
     	ClassLoader loader = Thread.currentThread().getContextClassLoader();
 		try(InputStream is = loader.getResourceAsStream(propertyFile)) {
@@ -62,7 +152,27 @@ public class HibernateSessionFactoryConfig {
 		} catch (Exception e) {
 			logger.error("Failed loading properties: " + propertyFile, e);
 		}
-		this.properties  = prop;
+		return prop;
+	}
+
+	/**
+	 * @return when the property file was last modified, or 0 if this config
+	 * 	has no property file or it cannot be found
+	 */
+	long getPropertyFileLastModified() {
+		if (propertyFile == null)
+			return 0L;
+		URL url = Thread.currentThread().getContextClassLoader().getResource(propertyFile);
+		if (url == null)
+			return 0L;
+		try {
+			if ("file".equals(url.getProtocol()))
+				return new File(url.toURI()).lastModified();
+			return url.openConnection().getLastModified();
+		} catch (IOException | URISyntaxException e) {
+			logger.warn("Cannot read the modification time of " + propertyFile, e);
+			return 0L;
+		}
 	}
 	
 	/**
@@ -81,17 +191,202 @@ public class HibernateSessionFactoryConfig {
 		return stream != null;
 	}
 
+	/**
+	 * Returns the SessionFactory, building it first if it has not been built.
+	 * Once built this is a single volatile read, and concurrent first callers
+	 * share one build.
+	 */
+	public SessionFactory getOrBuildSessionFactory() {
+		SessionFactory sessionFactory = getSessionFactory();
+		if (sessionFactory != null)
+			return sessionFactory;
+		rebuild(true, null);
+		return getSessionFactory();
+	}
+
+	/**
+	 * Opens a session on the current SessionFactory, building it if needed.
+	 * The session is tracked so a rebuild can close the old SessionFactory
+	 * once it ends.
+	 *
+	 * @return a new session
+	 * @throws UnrecoverableException if the config is closed or no SessionFactory could be built
+	 */
+	public Session openSession() {
+		while (true) {
+			SessionFactoryGeneration generation = current.get();
+			if (generation == null) {
+				rebuild(true, null);
+				generation = current.get();
+				if (generation == null)
+					throw new UnrecoverableException("Could not build the SessionFactory");
+			}
+			Session session = generation.openSession();
+			if (session != null)
+				return session;
+		}
+	}
+
+	/**
+	 * Opens a stateless session on the current SessionFactory, building it if
+	 * needed, tracked like the sessions from {@link #openSession()}.
+	 *
+	 * @return a new stateless session
+	 * @throws UnrecoverableException if the config is closed or no SessionFactory could be built
+	 */
+	public StatelessSession openStatelessSession() {
+		while (true) {
+			SessionFactoryGeneration generation = current.get();
+			if (generation == null) {
+				rebuild(true, null);
+				generation = current.get();
+				if (generation == null)
+					throw new UnrecoverableException("Could not build the SessionFactory");
+			}
+			StatelessSession session = generation.openStatelessSession();
+			if (session != null)
+				return session;
+		}
+	}
+
+	/**
+	 * Builds a new SessionFactory and switches new sessions to it. Concurrent
+	 * calls share one build. Sessions open on the previous SessionFactory
+	 * finish on it, and it is closed when the last of them ends or the
+	 * {@value #DRAIN_TIMEOUT} runs out. If the build fails, the previous
+	 * SessionFactory stays in use.
+	 */
 	public void rebuildSessionFactory() {
+		rebuild(false, null);
+	}
+
+	/**
+	 * Builds a SessionFactory from new properties and, if it builds, switches
+	 * new sessions to it and keeps the properties for later rebuilds. Sessions
+	 * open on the previous SessionFactory finish on it, and it is closed when
+	 * the last of them ends. If the build fails nothing changes.
+	 *
+	 * @param props the properties to apply
+	 * @return whether the properties were applied
+	 */
+	public boolean reload(Properties props) {
+		Properties copy = new Properties();
+		copy.putAll(props);
+		return rebuild(false, copy);
+	}
+
+	/**
+	 * Reads the property file again and reloads from it.
+	 *
+	 * @return whether the properties were applied
+	 * @see #reload(Properties)
+	 */
+	public boolean reloadPropertyFile() {
+		if (propertyFile == null)
+			return false;
+		return rebuild(false, loadProperties());
+	}
+
+	/**
+	 * Builds and swaps in a SessionFactory, single-flight. A rebuild without
+	 * replacement properties joins one already under way; a reload waits for
+	 * it and then runs its own build, so its properties are never dropped.
+	 * Once the config is closed nothing is built, and a build that finishes
+	 * after it closed is closed instead of swapped in.
+	 */
+	private boolean rebuild(boolean onlyIfAbsent, Properties replacement) {
+		CompletableFuture<Void> flight;
+		while (true) {
+			synchronized (rebuildLock) {
+				if (closed)
+					throw new UnrecoverableException("The SessionFactory has been closed");
+				if (onlyIfAbsent && current.get() != null)
+					return true;
+				if (rebuilding == null) {
+					rebuilding = new CompletableFuture<>();
+					flight = rebuilding;
+					break;
+				}
+				flight = rebuilding;
+			}
+			flight.join();
+			if (replacement == null)
+				return current.get() != null;
+		}
+		try {
+			SessionFactoryGeneration generation = buildSessionFactory(replacement != null ? replacement : properties);
+			if (generation == null)
+				return false;
+			synchronized (rebuildLock) {
+				if (closed) {
+					generation.close();
+					return false;
+				}
+				if (replacement != null)
+					properties = replacement;
+				swap(generation);
+			}
+			return true;
+		} finally {
+			synchronized (rebuildLock) {
+				rebuilding = null;
+			}
+			flight.complete(null);
+		}
+	}
+
+	private SessionFactoryGeneration buildSessionFactory(Properties properties) {
+		ConnectionPool pool = null;
 		try {
-			Configuration configuration = new Configuration();
-			configuration = configuration.setProperties(properties);
-			addAnnotatedHibernateEntitiesToConfiguration(configuration);
-			serviceRegistry = new StandardServiceRegistryBuilder().applySettings(configuration.getProperties()).build();
-			this.setSessionFactory(configuration.buildSessionFactory(serviceRegistry));
-			logConfiguration(configuration);
+			Properties settings = new Properties();
+			settings.putAll(properties);
+			if (ConnectionPool.isConfigured(properties)) {
+				pool = ConnectionPool.create(properties);
+				pool.applyTo(settings);
+			}
+			if (SecondLevelCache.isConfigured(properties))
+				SecondLevelCache.applyTo(settings);
+			ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(settings).build();
+			MetadataSources sources = new MetadataSources(serviceRegistry);
+			addAnnotatedHibernateEntities(sources);
+			MetadataBuilder metadata = sources.getMetadataBuilder();
+			SecondLevelCache.applyStrategies(properties, metadata);
+			SessionFactory sessionFactory = metadata.build().buildSessionFactory();
+			logConfiguration(settings);
+			return new SessionFactoryGeneration(sessionFactory, pool);
 		} catch (Exception ex) {
 			logger.error("Error Creating SessionFactory", ex);
+			if (pool != null)
+				pool.close();
+			return null;
+		}
+	}
+
+	/**
+	 * Closes the current SessionFactory immediately, without waiting for open
+	 * sessions. The config is closed for good: it builds no new SessionFactory.
+	 */
+	public void closeSessionFactory() {
+		synchronized (rebuildLock) {
+			closed = true;
 		}
+		SessionFactoryGeneration generation = current.getAndSet(null);
+		if (generation != null)
+			generation.close();
+	}
+
+	/**
+	 * Stops new sessions on the current SessionFactory and closes it once the
+	 * sessions open on it have ended, or when the drain timeout runs out.
+	 * The config is closed for good: it builds no new SessionFactory.
+	 */
+	public void retireSessionFactory() {
+		synchronized (rebuildLock) {
+			closed = true;
+		}
+		SessionFactoryGeneration generation = current.getAndSet(null);
+		if (generation != null)
+			generation.retire(getDrainTimeout());
 	}
 	
 	public Properties getProperties() {
@@ -99,43 +394,84 @@ public class HibernateSessionFactoryConfig {
 	}
 	
 	/**
-	 * Add all annotated hibernate entity classes from all 
-	 * packages to the configuration using reflection.
+	 * Add all annotated hibernate entity classes in the entity
+	 * packages to the metadata sources.
+	 * 
+	 * The entities are read from the index written at compile time
+	 * by {@link EntityIndexProcessor}, in every jar on the classpath
+	 * that has one. A package with no indexed entities, e.g. one
+	 * compiled without the processor, is scanned with reflection
+	 * for classes with the Entity annotation instead.
 	 * 
-	 * Reflection is used to find all classes with the prefix
-	 * "gov.noaa.alaskafisheries" and the Entity annotation
-	 * in all packages. This allows CAS2_Library's session
-	 * factory to use entities that live outside of it and
-	 * don't appear in its hibernate.cfg.xml. It also makes
-	 * the CAS2_Library hibernate.cfg.xml unnecessary.
-	 */
-	private static void addAnnotatedHibernateEntitiesToConfiguration(Configuration configuration) {
+	 * The packages are a comma separated list in the
+	 * {@value #ENTITY_PACKAGES} property, which defaults to
+	 * {@value #DEFAULT_ENTITY_PACKAGE}.
+	 */
+	private void addAnnotatedHibernateEntities(MetadataSources sources) {
 		
-		// this reflection query will also return CAS2_Library's entities
-		//  which may have already been added to the configuration through
-		//  hibernate.cfg.xml. that's okay, Configuration.buildSessionFactory()
-		//  will flatten any duplicate mappings.
-		Reflections reflections = new Reflections("org.seasailing.db.hibernate");
-		Set<Class<?>> entities = reflections.getTypesAnnotatedWith(javax.persistence.Entity.class);
+		List<String> packages = getEntityPackages();
+		Set<Class<?>> entities = readEntityIndex(packages);
+		List<String> unindexed = packages.stream()
+				.filter(p -> entities.stream().noneMatch(entity -> isInPackages(entity.getName(), Collections.singletonList(p))))
+				.collect(Collectors.toList());
+		if (!unindexed.isEmpty()) {
+			logger.info("No indexed entities in " + unindexed + ", scanning for entities there");
+			Reflections reflections = new Reflections(unindexed.toArray());
+			entities.addAll(reflections.getTypesAnnotatedWith(javax.persistence.Entity.class));
+		}
 		for (Class<?> entity : entities) {
 			logger.debug("Adding hibernate entity: " + entity + " - " + entity.getProtectionDomain().getCodeSource().getLocation().getPath()  );
-			configuration.addAnnotatedClass(entity);
+			sources.addAnnotatedClass(entity);
 		}
 		logger.info("Annotated hibernate entities added: " + entities.size());
 	}
+
+	private List<String> getEntityPackages() {
+		String value = properties.getProperty(ENTITY_PACKAGES, "");
+		List<String> packages = Arrays.stream(value.split(","))
+				.map(String::trim)
+				.filter(p -> !p.isEmpty())
+				.collect(Collectors.toList());
+		return packages.isEmpty() ? Collections.singletonList(DEFAULT_ENTITY_PACKAGE) : packages;
+	}
+
+	private static Set<Class<?>> readEntityIndex(List<String> packages) {
+		Set<Class<?>> entities = new LinkedHashSet<>();
+		ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		try {
+			Enumeration<URL> indexes = loader.getResources(EntityIndexProcessor.INDEX_RESOURCE);
+			while (indexes.hasMoreElements()) {
+				URL index = indexes.nextElement();
+				try (BufferedReader reader = new BufferedReader(new InputStreamReader(index.openStream(), StandardCharsets.UTF_8))) {
+					for (String name : reader.lines().map(String::trim).collect(Collectors.toList())) {
+						if (!name.isEmpty() && isInPackages(name, packages))
+							entities.add(Class.forName(name, false, loader));
+					}
+				}
+			}
+		} catch (IOException | ClassNotFoundException e) {
+			logger.error("Failed reading the entity index, falling back to scanning", e);
+			return new LinkedHashSet<>();
+		}
+		return entities;
+	}
+
+	private static boolean isInPackages(String className, List<String> packages) {
+		return packages.stream().anyMatch(p -> className.startsWith(p + "."));
+	}
 	
 	
     
     /**
      * Log configuration.
      */
-	private static void logConfiguration(Configuration configuration)
+	private static void logConfiguration(Properties settings)
 	{
 		logger.info("Hibernate Version: " + org.hibernate.Version.getVersionString());
-		Set<String> keys = configuration.getProperties().stringPropertyNames();
+		Set<String> keys = settings.stringPropertyNames();
 		for (String key : keys) {
 			if(key.startsWith("hibernate") && !key.contains("password")) {
-				logger.info(key + ": " + configuration.getProperties().getProperty(key));
+				logger.info(key + ": " + settings.getProperty(key));
 			}
 		}
     }
@@ -0,0 +1,63 @@
+package com.akmade.hibernate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Describes how to page through an entity by keyset: the mapped property the
+ * results are ordered by, how to read that key from a result, and how to
+ * restore it from a cursor. The key property must be unique, e.g. the id.
+ *
+ * Cursors are the key's string form, base64url encoded. They are opaque to
+ * clients, but are not signed, so never put anything secret in a key.
+ *
+ * @param <X> the type of the results
+ * @param <K> the type of the key
+ */
+public class Keyset<X, K> {
+	private final String property;
+	private final Function<X, K> keyOf;
+	private final Function<String, K> parseKey;
+
+	private Keyset(String property, Function<X, K> keyOf, Function<String, K> parseKey) {
+		this.property = Objects.requireNonNull(property);
+		this.keyOf = Objects.requireNonNull(keyOf);
+		this.parseKey = Objects.requireNonNull(parseKey);
+	}
+
+	public static <X, K> Keyset<X, K> of(String property, Function<X, K> keyOf, Function<String, K> parseKey) {
+		return new Keyset<>(property, keyOf, parseKey);
+	}
+
+	public static <X> Keyset<X, Long> ofLong(String property, Function<X, Long> keyOf) {
+		return of(property, keyOf, Long::valueOf);
+	}
+
+	public static <X> Keyset<X, String> ofString(String property, Function<X, String> keyOf) {
+		return of(property, keyOf, Function.identity());
+	}
+
+	public String getProperty() {
+		return property;
+	}
+
+	String cursorAfter(X last) {
+		String key = String.valueOf(keyOf.apply(last));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return the key encoded in the cursor, or empty if the cursor is not one this keyset produced
+	 */
+	Optional<K> keyOf(String cursor) {
+		try {
+			String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			return Optional.ofNullable(parseKey.apply(key));
+		} catch (IllegalArgumentException e) {
+			return Optional.empty();
+		}
+	}
+}
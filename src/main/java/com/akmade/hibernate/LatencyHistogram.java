@@ -0,0 +1,98 @@
+package com.akmade.hibernate;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * A lock-free histogram of durations in nanoseconds, in power-of-two buckets:
+ * bucket {@code i} counts durations from 2<sup>i</sup> up to 2<sup>i+1</sup>
+ * nanoseconds. Recording is a few atomic increments, cheap enough for every
+ * connection checkout.
+ */
+public class LatencyHistogram {
+	private static final int BUCKETS = 64;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	public void record(long nanos) {
+		long value = Math.max(nanos, 1L);
+		counts.incrementAndGet(63 - Long.numberOfLeadingZeros(value));
+		max.accumulate(value);
+	}
+
+	public Snapshot snapshot() {
+		long[] copy = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++)
+			copy[i] = counts.get(i);
+		return new Snapshot(copy, max.get());
+	}
+
+	/**
+	 * The bucket counts of a histogram at one point in time.
+	 */
+	public static class Snapshot {
+		private final long[] counts;
+		private final long count;
+		private final long max;
+
+		private Snapshot(long[] counts, long max) {
+			this.counts = counts;
+			this.count = Arrays.stream(counts).sum();
+			this.max = max;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		/**
+		 * @return the longest duration recorded, in nanoseconds
+		 */
+		public long getMax() {
+			return max;
+		}
+
+		/**
+		 * @return the number of durations recorded in each bucket
+		 */
+		public long[] getBucketCounts() {
+			return counts.clone();
+		}
+
+		/**
+		 * @return the largest duration, in nanoseconds, counted by the bucket
+		 */
+		public static long getBucketUpperBound(int bucket) {
+			return bucket >= 62 ? Long.MAX_VALUE : (1L << (bucket + 1)) - 1;
+		}
+
+		/**
+		 * Estimates a percentile as the upper bound of the bucket it falls in,
+		 * so it is never lower than the true value and at most twice it.
+		 *
+		 * @param percentile between 0 and 100
+		 * @return the estimated duration in nanoseconds, or 0 if nothing was recorded
+		 */
+		public long getPercentile(double percentile) {
+			if (percentile < 0 || percentile > 100)
+				throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+			if (count == 0)
+				return 0L;
+			long rank = Math.max(1L, (long) Math.ceil(count * percentile / 100));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank)
+					return Math.min(getBucketUpperBound(i), max);
+			}
+			return max;
+		}
+
+		@Override
+		public String toString() {
+			return "count=" + count + ", p50=" + getPercentile(50) + "ns, p99=" + getPercentile(99) + "ns, max=" + max + "ns";
+		}
+	}
+}
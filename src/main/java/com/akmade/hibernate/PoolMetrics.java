@@ -0,0 +1,84 @@
+package com.akmade.hibernate;
+
+/**
+ * The state of a data source's connection pool at one point in time.
+ * Waiting threads above zero mean the pool is saturated.
+ */
+public class PoolMetrics {
+	private final int active;
+	private final int idle;
+	private final int waiting;
+	private final int total;
+	private final int maximum;
+	private final long timeouts;
+	private final LatencyHistogram.Snapshot acquisition;
+	private final LatencyHistogram.Snapshot usage;
+
+	PoolMetrics(int active, int idle, int waiting, int total, int maximum, long timeouts,
+				LatencyHistogram.Snapshot acquisition, LatencyHistogram.Snapshot usage) {
+		this.active = active;
+		this.idle = idle;
+		this.waiting = waiting;
+		this.total = total;
+		this.maximum = maximum;
+		this.timeouts = timeouts;
+		this.acquisition = acquisition;
+		this.usage = usage;
+	}
+
+	/**
+	 * @return the connections checked out of the pool
+	 */
+	public int getActive() {
+		return active;
+	}
+
+	/**
+	 * @return the connections open and available in the pool
+	 */
+	public int getIdle() {
+		return idle;
+	}
+
+	/**
+	 * @return the threads blocked waiting for a connection
+	 */
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public int getMaximum() {
+		return maximum;
+	}
+
+	/**
+	 * @return the number of checkouts that gave up waiting for a connection
+	 */
+	public long getTimeouts() {
+		return timeouts;
+	}
+
+	/**
+	 * @return how long checkouts waited for a connection
+	 */
+	public LatencyHistogram.Snapshot getAcquisition() {
+		return acquisition;
+	}
+
+	/**
+	 * @return how long connections were held before being returned
+	 */
+	public LatencyHistogram.Snapshot getUsage() {
+		return usage;
+	}
+
+	@Override
+	public String toString() {
+		return "active=" + active + ", idle=" + idle + ", waiting=" + waiting + ", total=" + total + "/" + maximum
+				+ ", timeouts=" + timeouts + ", acquisition=[" + acquisition + "], usage=[" + usage + "]";
+	}
+}
@@ -3,7 +3,13 @@ package com.akmade.hibernate;
 
 import org.hibernate.Session;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import static com.akmade.hibernate.BaseRepository.logAndThrowError;
 import static com.akmade.hibernate.SessionUtility.*;
@@ -12,7 +18,14 @@ import static com.akmade.hibernate.SessionUtility.*;
 public interface Qry<T> {
 	Optional<T> execute(Session s);
 	
+	/**
+	 * Runs the query in its own session, or in the session bound to the data
+	 * source if it is run within a {@link SessionScope}.
+	 */
 	default Optional<T> run(HibernateSessionFactory.DataSource ds) {
+		Optional<SessionScope> scope = SessionScope.current(ds);
+		if (scope.isPresent())
+			return scope.get().execute(this::execute, "query");
 		Session session = createSession(ds);
 		logger.debug("Running query."); 
 		try {
@@ -24,4 +37,88 @@ public interface Qry<T> {
 			endSession(session);
 		}
 	}
+
+	/**
+	 * Runs the query without blocking the caller, on the data source's async
+	 * executor and within its concurrency limit.
+	 *
+	 * @see HibernateSessionFactory#runAsync(HibernateSessionFactory.DataSource, java.util.function.Supplier)
+	 */
+	default CompletableFuture<Optional<T>> runAsync(HibernateSessionFactory.DataSource ds) {
+		return HibernateSessionFactory.getInstance().runAsync(ds, () -> this.run(ds));
+	}
+
+	/**
+	 * Maps the result of this query, in the same session.
+	 */
+	default <U> Qry<U> map(Function<? super T, ? extends U> mapper) {
+		Objects.requireNonNull(mapper);
+		return session -> this.execute(session).map(mapper);
+	}
+
+	/**
+	 * Runs the query made from this query's result, in the same session.
+	 * If this query's result is empty the next query is not run.
+	 * The result is not read-only, even if both queries are.
+	 */
+	default <U> Qry<U> flatMap(Function<? super T, ? extends Qry<U>> next) {
+		Objects.requireNonNull(next);
+		return session -> this.execute(session).flatMap(t -> next.apply(t).execute(session));
+	}
+
+	/**
+	 * Runs this query and then the other, in the same session, and combines
+	 * their results. If this query's result is empty the other is not run;
+	 * the combined result is empty if either is.
+	 * The result is not read-only, even if both queries are.
+	 */
+	default <U, R> Qry<R> zip(Qry<U> other, BiFunction<? super T, ? super U, ? extends R> combiner) {
+		Objects.requireNonNull(other);
+		Objects.requireNonNull(combiner);
+		return session -> {
+			Optional<T> first = this.execute(session);
+			if (!first.isPresent())
+				return Optional.empty();
+			return other.execute(session).map(second -> combiner.apply(first.get(), second));
+		};
+	}
+
+	/**
+	 * Runs this query and then the next, in the same session, keeping the
+	 * next query's result. If this query's result is empty the next is not run.
+	 * The result is not read-only, even if both queries are.
+	 */
+	default <U> Qry<U> andThen(Qry<U> next) {
+		Objects.requireNonNull(next);
+		return session -> this.execute(session).isPresent()
+				? next.execute(session)
+				: Optional.empty();
+	}
+
+	/**
+	 * Combines queries into one that runs them in order, in the same session,
+	 * and collects their results. It stops at the first empty result, and its
+	 * own result is then empty.
+	 */
+	static <X> Qry<List<X>> sequence(List<? extends Qry<? extends X>> queries) {
+		List<Qry<? extends X>> copy = new ArrayList<>(queries);
+		return session -> {
+			List<X> results = new ArrayList<>(copy.size());
+			for (Qry<? extends X> qry : copy) {
+				Optional<? extends X> result = qry.execute(session);
+				if (!result.isPresent())
+					return Optional.empty();
+				results.add(result.get());
+			}
+			return Optional.of(results);
+		};
+	}
+
+	/**
+	 * Marks this query as read-only, so it runs in a read-only session that is
+	 * never flushed, on a replica of the data source when it has any.
+	 */
+	default ReadOnlyQry<T> readOnly() {
+		return this::execute;
+	}
 }
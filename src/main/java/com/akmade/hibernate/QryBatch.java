@@ -0,0 +1,107 @@
+package com.akmade.hibernate;
+
+import org.hibernate.Session;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Runs several queries in one session and one transaction, so they share a
+ * single connection checkout, a single commit and the session's first-level
+ * cache. The queries run in order and their results are returned in order.
+ *
+ * A batch is itself a query, so it can be run inside a larger unit of work.
+ * A batch made only of {@link ReadOnlyQry read-only queries} runs read-only.
+ */
+public final class QryBatch implements Qry<QryBatch.Results> {
+	private final List<Qry<?>> queries;
+
+	private QryBatch(List<Qry<?>> queries) {
+		this.queries = Collections.unmodifiableList(queries);
+	}
+
+	public static QryBatch of(Qry<?>... queries) {
+		return of(Arrays.asList(queries));
+	}
+
+	public static QryBatch of(List<? extends Qry<?>> queries) {
+		List<Qry<?>> copy = new ArrayList<>(queries);
+		copy.forEach(Objects::requireNonNull);
+		return new QryBatch(copy);
+	}
+
+	/**
+	 * @return a new batch with the query added at the end
+	 */
+	public QryBatch and(Qry<?> qry) {
+		List<Qry<?>> copy = new ArrayList<>(queries);
+		copy.add(Objects.requireNonNull(qry));
+		return new QryBatch(copy);
+	}
+
+	public List<Qry<?>> getQueries() {
+		return queries;
+	}
+
+	@Override
+	public Optional<Results> execute(Session s) {
+		List<Optional<?>> results = new ArrayList<>(queries.size());
+		for (Qry<?> qry : queries)
+			results.add(qry.execute(s));
+		return Optional.of(new Results(queries, results));
+	}
+
+	@Override
+	public Optional<Results> run(HibernateSessionFactory.DataSource ds) {
+		return isReadOnly()
+				? readOnly().run(ds)
+				: Qry.super.run(ds);
+	}
+
+	private boolean isReadOnly() {
+		return !queries.isEmpty() && queries.stream().allMatch(qry -> qry instanceof ReadOnlyQry);
+	}
+
+	/**
+	 * The results of a batch, in the order its queries were added.
+	 */
+	public static final class Results {
+		private final List<Optional<?>> results;
+		private final Map<Qry<?>, Integer> positions = new IdentityHashMap<>();
+
+		private Results(List<Qry<?>> queries, List<Optional<?>> results) {
+			this.results = Collections.unmodifiableList(results);
+			for (int i = queries.size() - 1; i >= 0; i--)
+				positions.put(queries.get(i), i);
+		}
+
+		/**
+		 * @return the result of the given query, the first time it was added to the batch
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> Optional<T> get(Qry<T> qry) {
+			Integer position = positions.get(qry);
+			if (position == null)
+				throw new IllegalArgumentException("The query is not part of the batch");
+			return (Optional<T>) results.get(position);
+		}
+
+		public Optional<?> get(int index) {
+			return results.get(index);
+		}
+
+		public int size() {
+			return results.size();
+		}
+
+		public List<Optional<?>> asList() {
+			return results;
+		}
+	}
+}
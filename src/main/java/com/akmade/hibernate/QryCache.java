@@ -0,0 +1,304 @@
+package com.akmade.hibernate;
+
+import com.akmade.exceptions.UnrecoverableException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+
+import javax.transaction.Synchronization;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the results of queries, keyed by the entity type they read and a
+ * key identifying the query and its parameters. Entries expire a fixed time
+ * after they are loaded, and the least recently used entry is evicted once
+ * the cache is full. Concurrent misses on the same key run the query once;
+ * the others wait for its result.
+ *
+ * Every entry for an entity type is invalidated when a transaction that
+ * wrote the type completes, for writes made through
+ * {@link BaseRepository#saveOrUpdate}, {@link BaseRepository#delete}, the
+ * bulk statements and {@link BulkWrite}. Other writes can register with
+ * {@link #invalidateAfterCompletion(Session, Class)}.
+ *
+ * A cached result is the very object the loading query returned, shared by
+ * every caller. An entity in it stays managed by the loading session and is
+ * detached in every other, with its state shared between them, so a change
+ * made by one caller is seen by all. Cache immutable values or projections,
+ * such as ids, counts or DTOs, rather than entities.
+ */
+public final class QryCache {
+	private static final Set<QryCache> caches = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+	private static final Map<Transaction, Invalidation> pending = new WeakHashMap<>();
+
+	private final long ttlNanos;
+	private final LongSupplier ticker;
+	private final Map<Key, Slot> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private QryCache(Builder builder) {
+		this.ttlNanos = builder.ttlNanos_;
+		this.ticker = builder.ticker_;
+		int maximumSize = builder.maximumSize_;
+		this.entries = new LinkedHashMap<Key, Slot>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Slot> eldest) {
+				return size() > maximumSize;
+			}
+		};
+		caches.add(this);
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/**
+	 * Wraps a query so its results are cached.
+	 *
+	 * @param type the entity type the query reads; writes to it invalidate the result
+	 * @param key identifies the query and its parameters, e.g. {@code Arrays.asList("byName", name)}
+	 * @param qry the query to cache; it should return an immutable value or projection, not entities
+	 * @return a query returning the cached result, running the query on a miss
+	 */
+	public <T> Qry<T> cached(Class<?> type, Object key, Qry<T> qry) {
+		Key cacheKey = new Key(Objects.requireNonNull(type), Objects.requireNonNull(key));
+		Objects.requireNonNull(qry);
+		return session -> get(cacheKey, qry, session);
+	}
+
+	/**
+	 * Wraps a read-only query so its results are cached, keeping it read-only.
+	 * A separate name rather than an overload, since an overload taking the
+	 * subtype would bind every lambda and make it read-only.
+	 *
+	 * @see #cached(Class, Object, Qry)
+	 */
+	public <T> ReadOnlyQry<T> cachedReadOnly(Class<?> type, Object key, ReadOnlyQry<T> qry) {
+		Qry<T> cached = cached(type, key, (Qry<T>) qry);
+		return cached::execute;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> Optional<T> get(Key key, Qry<T> qry, Session session) {
+		long now = ticker.getAsLong();
+		Slot entry;
+		boolean leader = false;
+		synchronized (entries) {
+			entry = entries.get(key);
+			if (entry != null && entry.isExpired(now)) {
+				entries.remove(key);
+				entry = null;
+			}
+			if (entry == null) {
+				entry = new Slot();
+				entries.put(key, entry);
+				leader = true;
+			}
+		}
+		if (leader) {
+			misses.increment();
+			return load(key, entry, qry, session);
+		}
+		hits.increment();
+		try {
+			return (Optional<T>) entry.value.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			UnrecoverableException ex = new UnrecoverableException("Error loading the cached query. " + e.getCause());
+			ex.addSuppressed(e.getCause());
+			throw ex;
+		}
+	}
+
+	private <T> Optional<T> load(Key key, Slot entry, Qry<T> qry, Session session) {
+		Optional<T> result;
+		try {
+			result = qry.execute(session);
+		} catch (RuntimeException | Error e) {
+			synchronized (entries) {
+				entries.remove(key, entry);
+			}
+			entry.value.completeExceptionally(e);
+			throw e;
+		}
+		// an entry invalidated while loading is no longer in the map, and stays out
+		entry.expiresAt = ticker.getAsLong() + ttlNanos;
+		entry.value.complete(result);
+		return result;
+	}
+
+	/**
+	 * Removes every entry for the entity type, its supertypes and its subtypes.
+	 */
+	public void invalidate(Class<?> type) {
+		synchronized (entries) {
+			entries.keySet().removeIf(key -> key.type.isAssignableFrom(type) || type.isAssignableFrom(key.type));
+		}
+	}
+
+	public void invalidateAll() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/**
+	 * Invalidates the entity type in every cache.
+	 */
+	public static void invalidateEverywhere(Class<?> type) {
+		List<QryCache> all;
+		synchronized (caches) {
+			all = new ArrayList<>(caches);
+		}
+		all.forEach(cache -> cache.invalidate(type));
+	}
+
+	/**
+	 * Invalidates the entity type in every cache when the session's
+	 * transaction completes, or right away if it has none. A transaction
+	 * registers one callback however many writes it makes.
+	 */
+	public static void invalidateAfterCompletion(Session session, Class<?> type) {
+		if (caches.isEmpty())
+			return;
+		Transaction transaction = session.getTransaction();
+		if (transaction == null || !TransactionStatus.ACTIVE.equals(transaction.getStatus())) {
+			invalidateEverywhere(type);
+			return;
+		}
+		synchronized (pending) {
+			Invalidation invalidation = pending.get(transaction);
+			if (invalidation == null) {
+				invalidation = new Invalidation();
+				transaction.registerSynchronization(invalidation);
+				pending.put(transaction, invalidation);
+			}
+			invalidation.types.add(type);
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * The entity types a transaction wrote, invalidated when it completes.
+	 */
+	private static final class Invalidation implements Synchronization {
+		private final Set<Class<?>> types = new LinkedHashSet<>();
+
+		@Override
+		public void beforeCompletion() {
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			List<Class<?>> written;
+			synchronized (pending) {
+				pending.values().remove(this);
+				written = new ArrayList<>(types);
+			}
+			written.forEach(QryCache::invalidateEverywhere);
+		}
+	}
+
+	private static final class Key {
+		private final Class<?> type;
+		private final Object key;
+
+		private Key(Class<?> type, Object key) {
+			this.type = type;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Key))
+				return false;
+			Key other = (Key) o;
+			return type.equals(other.type) && key.equals(other.key);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * type.hashCode() + key.hashCode();
+		}
+	}
+
+	private static final class Slot {
+		private final CompletableFuture<Optional<?>> value = new CompletableFuture<>();
+		private volatile long expiresAt = Long.MAX_VALUE;
+
+		private boolean isExpired(long now) {
+			return value.isDone() && now - expiresAt >= 0;
+		}
+	}
+
+	public static class Builder {
+		int maximumSize_ = 10_000;
+		long ttlNanos_ = TimeUnit.MINUTES.toNanos(5);
+		LongSupplier ticker_ = System::nanoTime;
+
+		private Builder() {
+		}
+
+		public Builder maximumSize(int maximumSize) {
+			if (maximumSize < 1)
+				throw new IllegalArgumentException("Maximum size must be positive: " + maximumSize);
+			maximumSize_ = maximumSize;
+			return this;
+		}
+
+		/**
+		 * @param ttl how long a result is served after it is loaded
+		 * @param unit the unit of the ttl
+		 * @return this builder
+		 */
+		public Builder expireAfterWrite(long ttl, TimeUnit unit) {
+			if (ttl <= 0)
+				throw new IllegalArgumentException("Time to live must be positive: " + ttl);
+			ttlNanos_ = unit.toNanos(ttl);
+			return this;
+		}
+
+		/**
+		 * @param ticker the time source for expiry, in nanoseconds; {@link System#nanoTime()} by default
+		 * @return this builder
+		 */
+		public Builder ticker(LongSupplier ticker) {
+			ticker_ = Objects.requireNonNull(ticker);
+			return this;
+		}
+
+		public QryCache build() {
+			return new QryCache(this);
+		}
+	}
+}
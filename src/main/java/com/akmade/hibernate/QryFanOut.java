@@ -0,0 +1,238 @@
+package com.akmade.hibernate;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.util.ServicePackage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.akmade.util.MessageUtility.MAKE_ERROR;
+import static com.akmade.util.MessageUtility.MAKE_EXCEPTION;
+import static com.akmade.util.MessageUtility.MAKE_INFO;
+
+/**
+ * Runs independent queries in parallel, each in its own session, so the
+ * time taken is that of the slowest query rather than the sum of them all.
+ * The queries run through {@link HibernateSessionFactory#runAsync}, so no
+ * more of them run at once than the data source's async concurrency limit.
+ *
+ * A failing query does not stop the others: its result is empty and the
+ * failure is reported as a message. Every query's time is reported as an
+ * INFO message whose code is the time in milliseconds.
+ *
+ * The queries never join a {@link SessionScope}, even when the fan-out is run
+ * within one: they run in sessions of their own and see only committed data.
+ */
+public final class QryFanOut {
+	private final Map<String, Qry<?>> queries;
+	private final long timeoutNanos;
+
+	private QryFanOut(Builder builder) {
+		this.queries = Collections.unmodifiableMap(new LinkedHashMap<>(builder.queries_));
+		this.timeoutNanos = builder.timeoutNanos_;
+	}
+
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/**
+	 * Runs the queries and waits for all of them to finish or time out.
+	 */
+	public Results run(DataSource ds) {
+		return runAsync(ds).join();
+	}
+
+	/**
+	 * @return a future completed with the results once every query has finished or timed out
+	 */
+	public CompletableFuture<Results> runAsync(DataSource ds) {
+		HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+		Map<String, CompletableFuture<Outcome>> outcomes = new LinkedHashMap<>();
+		queries.forEach((name, qry) -> {
+			CompletableFuture<Outcome> outcome = factory.runAsync(ds, SessionScope.detach(() -> execute(qry, ds)));
+			if (timeoutNanos > 0)
+				outcome = outcome.completeOnTimeout(Outcome.TIMED_OUT, timeoutNanos, TimeUnit.NANOSECONDS);
+			outcomes.put(name, outcome.exceptionally(e -> new Outcome(Optional.empty(), e, 0L)));
+		});
+		return CompletableFuture.allOf(outcomes.values().toArray(new CompletableFuture<?>[0]))
+				.thenApply(done -> new Results(queries, outcomes));
+	}
+
+	private static Outcome execute(Qry<?> qry, DataSource ds) {
+		long start = System.nanoTime();
+		try {
+			return new Outcome(qry.run(ds), null, System.nanoTime() - start);
+		} catch (RuntimeException e) {
+			return new Outcome(Optional.empty(), e, System.nanoTime() - start);
+		}
+	}
+
+	private static final class Outcome {
+		private static final Outcome TIMED_OUT = new Outcome(Optional.empty(), null, -1L);
+
+		private final Optional<?> result;
+		private final Throwable failure;
+		private final long elapsedNanos;
+
+		private Outcome(Optional<?> result, Throwable failure, long elapsedNanos) {
+			this.result = result;
+			this.failure = failure;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		private boolean isTimedOut() {
+			return this == TIMED_OUT;
+		}
+	}
+
+	/**
+	 * The results of a fan-out, with the time each query took and messages
+	 * for each query's time and for every failure.
+	 */
+	public static final class Results {
+		private final Map<String, Outcome> outcomes = new LinkedHashMap<>();
+		private final Map<Qry<?>, String> names = new IdentityHashMap<>();
+		private final List<Msg> messages = new ArrayList<>();
+		private boolean failed = false;
+
+		private Results(Map<String, Qry<?>> queries, Map<String, CompletableFuture<Outcome>> futures) {
+			queries.forEach((name, qry) -> {
+				Outcome outcome = futures.get(name).join();
+				outcomes.put(name, outcome);
+				names.put(qry, name);
+				if (outcome.isTimedOut()) {
+					failed = true;
+					messages.add(MAKE_ERROR.apply(name + " timed out"));
+					return;
+				}
+				long millis = TimeUnit.NANOSECONDS.toMillis(outcome.elapsedNanos);
+				messages.add(MAKE_INFO.apply(name + " took " + millis + " ms").toBuilder().setCode(millis).build());
+				if (outcome.failure != null) {
+					failed = true;
+					messages.add(MAKE_EXCEPTION.apply(name + " failed: " + outcome.failure.getMessage()));
+				}
+			});
+		}
+
+		/**
+		 * @return the query's result, empty if it failed or timed out
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> Optional<T> get(Qry<T> qry) {
+			return (Optional<T>) outcome(qry).result;
+		}
+
+		/**
+		 * @return the result of the query added under the name, empty if it failed or timed out
+		 */
+		public Optional<?> get(String name) {
+			return outcome(name).result;
+		}
+
+		public boolean isFailed(Qry<?> qry) {
+			return isFailed(outcome(qry));
+		}
+
+		public boolean isFailed(String name) {
+			return isFailed(outcome(name));
+		}
+
+		private static boolean isFailed(Outcome outcome) {
+			return outcome.isTimedOut() || outcome.failure != null;
+		}
+
+		/**
+		 * @return whether any query failed or timed out
+		 */
+		public boolean hasFailures() {
+			return failed;
+		}
+
+		/**
+		 * @return how long the query ran, or -1 if it timed out
+		 */
+		public long getElapsed(Qry<?> qry, TimeUnit unit) {
+			return getElapsed(outcome(qry), unit);
+		}
+
+		public long getElapsed(String name, TimeUnit unit) {
+			return getElapsed(outcome(name), unit);
+		}
+
+		private static long getElapsed(Outcome outcome, TimeUnit unit) {
+			return outcome.isTimedOut() ? -1L : unit.convert(outcome.elapsedNanos, TimeUnit.NANOSECONDS);
+		}
+
+		public Collection<Msg> messages() {
+			return Collections.unmodifiableList(messages);
+		}
+
+		public ServicePackage<Results> toServicePackage() {
+			return ServicePackage.of(this, messages);
+		}
+
+		private Outcome outcome(Qry<?> qry) {
+			String name = names.get(qry);
+			if (name == null)
+				throw new IllegalArgumentException("The query is not part of the fan-out");
+			return outcomes.get(name);
+		}
+
+		private Outcome outcome(String name) {
+			Outcome outcome = outcomes.get(name);
+			if (outcome == null)
+				throw new IllegalArgumentException("No query named " + name + " in the fan-out");
+			return outcome;
+		}
+	}
+
+	public static class Builder {
+		final Map<String, Qry<?>> queries_ = new LinkedHashMap<>();
+		long timeoutNanos_ = 0L;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param name names the query in the messages and the results
+		 * @param qry the query to run; a query instance can be added only once
+		 * @return this builder
+		 */
+		public Builder add(String name, Qry<?> qry) {
+			Objects.requireNonNull(qry);
+			if (queries_.values().stream().anyMatch(added -> added == qry))
+				throw new IllegalArgumentException("The query is already added, under another name than " + name);
+			if (queries_.putIfAbsent(Objects.requireNonNull(name), qry) != null)
+				throw new IllegalArgumentException("Duplicate query name: " + name);
+			return this;
+		}
+
+		/**
+		 * Stops waiting for a query after the timeout; it is reported as timed
+		 * out, though it keeps running until it ends on its own.
+		 *
+		 * @return this builder
+		 */
+		public Builder timeout(long timeout, TimeUnit unit) {
+			if (timeout <= 0)
+				throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+			timeoutNanos_ = unit.toNanos(timeout);
+			return this;
+		}
+
+		public QryFanOut build() {
+			return new QryFanOut(this);
+		}
+	}
+}
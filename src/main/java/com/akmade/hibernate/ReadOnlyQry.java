@@ -0,0 +1,59 @@
+package com.akmade.hibernate;
+
+
+import org.hibernate.Session;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+
+import static com.akmade.hibernate.BaseRepository.logAndThrowError;
+import static com.akmade.hibernate.SessionUtility.*;
+
+/**
+ * A query that only reads. Running it against a data source with replicas
+ * registered sends it to one of the replicas instead of the primary.
+ *
+ * The session it runs in is read-only and never flushed, so loaded entities
+ * are not dirty checked when it ends; changes made to them are discarded.
+ * Within a {@link SessionScope} it joins the bound session, which is not read-only.
+ *
+ * Only {@link #map} keeps a query read-only. {@link #flatMap}, {@link #zip}
+ * and {@link #andThen} return a plain {@link Qry}, since the query they add
+ * may write, so the composed query runs on the primary in a writable session.
+ * Call {@link #readOnly()} on the result when every part of it only reads.
+ */
+@FunctionalInterface
+public interface ReadOnlyQry<T> extends Qry<T> {
+
+	@Override
+	default Optional<T> run(HibernateSessionFactory.DataSource ds) {
+		Optional<SessionScope> scope = SessionScope.current(ds);
+		if (scope.isPresent())
+			return scope.get().execute(this::execute, "query");
+		Session session = createReadOnlySession(ds);
+		logger.debug("Running read-only query.");
+		try {
+			return this.execute(session);
+		} catch (Exception e) {
+			rollbackAndClose(session);
+			throw logAndThrowError("Error running the query. " + e.getMessage());
+		} finally {
+			endReadOnlySession(session);
+		}
+	}
+
+	/**
+	 * Maps the result, keeping the query read-only.
+	 */
+	@Override
+	default <U> ReadOnlyQry<U> map(Function<? super T, ? extends U> mapper) {
+		Objects.requireNonNull(mapper);
+		return session -> this.execute(session).map(mapper);
+	}
+
+	@Override
+	default ReadOnlyQry<T> readOnly() {
+		return this;
+	}
+}
@@ -0,0 +1,122 @@
+package com.akmade.hibernate;
+
+import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Reloads data sources from new properties, and watches their property
+ * files for changes, on one background thread.
+ */
+class Reloader {
+	private static Logger logger = LoggerFactory.getLogger(Reloader.class);
+
+	/**
+	 * Holds the thread that reloads data sources and polls their property
+	 * files, started on first use.
+	 */
+	private static class ThreadHolder {
+		private static final ScheduledExecutorService RELOADER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "hibernate-reload");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	private final ConcurrentMap<DataSource, Watch> watches = new ConcurrentHashMap<>();
+	private final Function<DataSource, HibernateSessionFactoryConfig> registered;
+	private final Consumer<DataSource> reloaded;
+
+	/**
+	 * @param registered looks up the config registered for a data source, or {@code null}
+	 * @param reloaded told about every data source once it has been reloaded
+	 */
+	Reloader(Function<DataSource, HibernateSessionFactoryConfig> registered, Consumer<DataSource> reloaded) {
+		this.registered = registered;
+		this.reloaded = reloaded;
+	}
+
+	CompletableFuture<Boolean> reload(DataSource ds, HibernateSessionFactoryConfig config, Properties properties) {
+		return CompletableFuture.supplyAsync(() -> reloaded(ds, config.reload(properties)), ThreadHolder.RELOADER);
+	}
+
+	CompletableFuture<Boolean> reloadPropertyFile(DataSource ds, HibernateSessionFactoryConfig config) {
+		return CompletableFuture.supplyAsync(() -> reloaded(ds, config.reloadPropertyFile()), ThreadHolder.RELOADER);
+	}
+
+	void watch(DataSource ds, HibernateSessionFactoryConfig config, long period, TimeUnit unit) {
+		if (config.getPropertyFile() == null)
+			throw new UnrecoverableException("Data source " + ds + " was not registered from a property file");
+		Watch watch = new Watch(ds, config.getPropertyFileLastModified());
+		watch.schedule = ThreadHolder.RELOADER.scheduleWithFixedDelay(watch::check, period, period, unit);
+		Watch previous = watches.put(ds, watch);
+		if (previous != null)
+			previous.schedule.cancel(false);
+	}
+
+	/**
+	 * Checks a watched property file now, on the reload thread, rather than waiting for its next poll.
+	 */
+	CompletableFuture<Boolean> check(DataSource ds) {
+		Watch watch = watches.get(ds);
+		if (watch == null)
+			throw new UnrecoverableException("Data source " + ds + " is not watched");
+		return CompletableFuture.supplyAsync(watch::check, ThreadHolder.RELOADER);
+	}
+
+	void unwatch(DataSource ds) {
+		Watch watch = watches.remove(ds);
+		if (watch != null)
+			watch.schedule.cancel(false);
+	}
+
+	/**
+	 * A watched property file and when it last changed. Only the reload thread checks it.
+	 */
+	private class Watch {
+		private final DataSource ds;
+		private long lastModified;
+		private volatile ScheduledFuture<?> schedule;
+
+		Watch(DataSource ds, long lastModified) {
+			this.ds = ds;
+			this.lastModified = lastModified;
+		}
+
+		/**
+		 * @return whether the property file had changed and the data source was reloaded from it
+		 */
+		boolean check() {
+			HibernateSessionFactoryConfig current = registered.apply(ds);
+			if (current == null)
+				return false;
+			long modified = current.getPropertyFileLastModified();
+			if (modified == 0L || modified == lastModified)
+				return false;
+			lastModified = modified;
+			logger.info("Property file " + current.getPropertyFile() + " changed, reloading " + ds);
+			if (reloaded(ds, current.reloadPropertyFile()))
+				return true;
+			logger.error("Reloading " + ds + " failed, keeping the previous SessionFactory");
+			return false;
+		}
+	}
+
+	private boolean reloaded(DataSource ds, boolean applied) {
+		if (applied)
+			reloaded.accept(ds);
+		return applied;
+	}
+}
@@ -0,0 +1,134 @@
+package com.akmade.hibernate;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+
+/**
+ * A logical data source made of one primary and any number of read replicas,
+ * each of them a data source registered with the {@link HibernateSessionFactory}.
+ * Read sessions are spread across the replicas; everything else uses the primary.
+ */
+public class ReplicaSet {
+	private static Logger logger = LoggerFactory.getLogger(ReplicaSet.class);
+
+	public enum LoadBalancing
+	{
+		/** Each read goes to the next replica in turn. */
+		ROUND_ROBIN,
+		/** Each read goes to the replica with the fewest open read sessions. */
+		LEAST_IN_FLIGHT
+	}
+
+	private final DataSource primary;
+	private final List<DataSource> replicas;
+	private final LoadBalancing loadBalancing;
+	private final AtomicInteger next = new AtomicInteger();
+	private final AtomicIntegerArray inFlight;
+
+	ReplicaSet(DataSource primary, List<DataSource> replicas, LoadBalancing loadBalancing) {
+		this.primary = Objects.requireNonNull(primary);
+		this.replicas = Collections.unmodifiableList(new ArrayList<>(replicas));
+		this.loadBalancing = Objects.requireNonNull(loadBalancing);
+		this.inFlight = new AtomicIntegerArray(replicas.size());
+	}
+
+	public DataSource getPrimary() {
+		return primary;
+	}
+
+	public List<DataSource> getReplicas() {
+		return replicas;
+	}
+
+	public LoadBalancing getLoadBalancing() {
+		return loadBalancing;
+	}
+
+	/**
+	 * @return the number of read sessions currently open on each replica, in replica order
+	 */
+	public int[] getInFlight() {
+		int[] counts = new int[inFlight.length()];
+		for (int i = 0; i < counts.length; i++)
+			counts[i] = inFlight.get(i);
+		return counts;
+	}
+
+	/**
+	 * Opens a session on the chosen replica and begins it, falling back to the
+	 * primary if there are no replicas or the replica cannot be reached.
+	 * Sessions connect lazily, so an unreachable replica usually only fails
+	 * when begin first uses the connection, e.g. to start a transaction.
+	 *
+	 * @param begin prepares the session, e.g. starts its transaction
+	 */
+	Session openReadSession(HibernateSessionFactory factory, Consumer<Session> begin) {
+		if (replicas.isEmpty())
+			return begin(factory.createSession(primary), begin);
+		int index = choose();
+		inFlight.incrementAndGet(index);
+		Session session;
+		try {
+			session = factory.createSession(replicas.get(index));
+		} catch (RuntimeException e) {
+			inFlight.decrementAndGet(index);
+			return fallBack(factory, index, begin, e);
+		}
+		session.addEventListeners(new BaseSessionEventListener() {
+			@Override
+			public void end() {
+				inFlight.decrementAndGet(index);
+			}
+		});
+		try {
+			begin.accept(session);
+			return session;
+		} catch (RuntimeException e) {
+			try {
+				session.close();
+			} catch (RuntimeException closing) {
+				e.addSuppressed(closing);
+			}
+			return fallBack(factory, index, begin, e);
+		}
+	}
+
+	private Session fallBack(HibernateSessionFactory factory, int index, Consumer<Session> begin, RuntimeException e) {
+		logger.warn("Replica " + replicas.get(index) + " unavailable, reading from " + primary, e);
+		return begin(factory.createSession(primary), begin);
+	}
+
+	private static Session begin(Session session, Consumer<Session> begin) {
+		try {
+			begin.accept(session);
+			return session;
+		} catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+	}
+
+	private int choose() {
+		if (loadBalancing == LoadBalancing.ROUND_ROBIN)
+			return Math.floorMod(next.getAndIncrement(), replicas.size());
+		int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+		int best = start;
+		for (int i = 1; i < replicas.size(); i++) {
+			int candidate = (start + i) % replicas.size();
+			if (inFlight.get(candidate) < inFlight.get(best))
+				best = candidate;
+		}
+		return best;
+	}
+}
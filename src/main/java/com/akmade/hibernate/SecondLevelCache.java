@@ -0,0 +1,63 @@
+package com.akmade.hibernate;
+
+import org.hibernate.boot.CacheRegionDefinition;
+import org.hibernate.boot.MetadataBuilder;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cfg.AvailableSettings;
+
+import java.util.Properties;
+
+/**
+ * Second-level and query cache settings for a data source, backed by a
+ * JCache provider such as Ehcache 3 on the classpath.
+ *
+ * <p>A data source caches when its properties set {@value #CACHE} to
+ * {@value #JCACHE}. {@value #QUERY_CACHE} turns the query cache on, and
+ * {@value #PROVIDER} names the JCache provider class when there is more than
+ * one. Regions the provider has no configuration for are created with its
+ * defaults. Entities are cached with a concurrency strategy set per entity, e.g.
+ * {@code akmade.hibernate.cache.strategy.org.seasailing.db.hibernate.Boat=read-write},
+ * or with Hibernate's {@code @Cache} annotation. Statistics are gathered
+ * unless {@code hibernate.generate_statistics} says otherwise, and any
+ * {@code hibernate.cache.*} property still applies as is.
+ */
+public class SecondLevelCache {
+	public static final String CACHE = "akmade.hibernate.cache";
+	public static final String JCACHE = "jcache";
+	public static final String QUERY_CACHE = "akmade.hibernate.cache.query";
+	public static final String PROVIDER = "akmade.hibernate.cache.provider";
+	public static final String STRATEGY_PREFIX = "akmade.hibernate.cache.strategy.";
+
+	private SecondLevelCache() {
+	}
+
+	static boolean isConfigured(Properties properties) {
+		return JCACHE.equalsIgnoreCase(properties.getProperty(CACHE, "").trim());
+	}
+
+	static void applyTo(Properties settings) {
+		settings.putIfAbsent(AvailableSettings.USE_SECOND_LEVEL_CACHE, "true");
+		settings.putIfAbsent(AvailableSettings.CACHE_REGION_FACTORY, DefaultingJCacheRegionFactory.class.getName());
+		settings.putIfAbsent(AvailableSettings.USE_QUERY_CACHE, settings.getProperty(QUERY_CACHE, "false").trim());
+		settings.putIfAbsent(AvailableSettings.GENERATE_STATISTICS, "true");
+		String provider = settings.getProperty(PROVIDER);
+		if (provider != null)
+			settings.putIfAbsent("hibernate.javax.cache.provider", provider.trim());
+	}
+
+	/**
+	 * Caches each entity given a strategy in the properties, failing on an unknown strategy.
+	 */
+	static void applyStrategies(Properties properties, MetadataBuilder metadata) {
+		if (!isConfigured(properties))
+			return;
+		for (String key : properties.stringPropertyNames()) {
+			if (!key.startsWith(STRATEGY_PREFIX))
+				continue;
+			String entity = key.substring(STRATEGY_PREFIX.length());
+			AccessType strategy = AccessType.fromExternalName(properties.getProperty(key).trim());
+			metadata.applyCacheRegionDefinition(new CacheRegionDefinition(
+					CacheRegionDefinition.CacheRegionType.ENTITY, entity, strategy.getExternalName(), null, true));
+		}
+	}
+}
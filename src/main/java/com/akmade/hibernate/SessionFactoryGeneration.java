@@ -0,0 +1,156 @@
+package com.akmade.hibernate;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One built SessionFactory and the number of sessions open on it. Once
+ * retired, it opens no new sessions and closes the SessionFactory as soon
+ * as the last open session ends, along with its connection pool if it has one.
+ * A drain period bounds the wait, since sessions that are never closed would
+ * otherwise keep the SessionFactory and its connections open forever.
+ */
+class SessionFactoryGeneration {
+	private static Logger logger = LoggerFactory.getLogger(SessionFactoryGeneration.class);
+	private final SessionFactory sessionFactory;
+	private final ConnectionPool pool;
+	private final AtomicInteger open = new AtomicInteger();
+	private final AtomicBoolean closed = new AtomicBoolean(false);
+	private volatile boolean retired = false;
+
+	SessionFactoryGeneration(SessionFactory sessionFactory) {
+		this(sessionFactory, null);
+	}
+
+	SessionFactoryGeneration(SessionFactory sessionFactory, ConnectionPool pool) {
+		this.sessionFactory = sessionFactory;
+		this.pool = pool;
+	}
+
+	SessionFactory getSessionFactory() {
+		return sessionFactory;
+	}
+
+	/**
+	 * @return the connection pool, or {@code null} if the SessionFactory does not use one
+	 */
+	ConnectionPool getPool() {
+		return pool;
+	}
+
+	int getOpenSessions() {
+		return open.get();
+	}
+
+	/**
+	 * @return a new session tracked until it is closed, or {@code null} if this generation is retired
+	 */
+	Session openSession() {
+		open.incrementAndGet();
+		if (retired) {
+			release();
+			return null;
+		}
+		try {
+			Session session = sessionFactory.openSession();
+			session.addEventListeners(new BaseSessionEventListener() {
+				@Override
+				public void end() {
+					release();
+				}
+			});
+			return session;
+		} catch (RuntimeException e) {
+			release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Stateless sessions have no event listeners, so the session is wrapped to
+	 * see it closed.
+	 *
+	 * @return a new stateless session tracked until it is closed, or {@code null} if this generation is retired
+	 */
+	StatelessSession openStatelessSession() {
+		open.incrementAndGet();
+		if (retired) {
+			release();
+			return null;
+		}
+		try {
+			StatelessSession session = sessionFactory.openStatelessSession();
+			AtomicBoolean ended = new AtomicBoolean(false);
+			return (StatelessSession) Proxy.newProxyInstance(StatelessSession.class.getClassLoader(),
+					new Class<?>[] {StatelessSession.class}, (proxy, method, args) -> {
+						try {
+							return method.invoke(session, args);
+						} catch (InvocationTargetException e) {
+							throw e.getCause();
+						} finally {
+							if ("close".equals(method.getName()) && method.getParameterCount() == 0 && ended.compareAndSet(false, true))
+								release();
+						}
+					});
+		} catch (RuntimeException e) {
+			release();
+			throw e;
+		}
+	}
+
+	void retire() {
+		retired = true;
+		if (open.get() == 0)
+			close();
+	}
+
+	/**
+	 * Retires the generation, closing it when its open sessions have ended or
+	 * when the drain period runs out, whichever is first.
+	 */
+	void retire(Duration drain) {
+		retire();
+		if (closed.get())
+			return;
+		CompletableFuture.delayedExecutor(drain.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+			if (closed.get())
+				return;
+			logger.warn(open.get() + " sessions still open after " + drain.toMillis() + " ms, closing the retired SessionFactory");
+			close();
+		});
+	}
+
+	boolean isClosed() {
+		return closed.get();
+	}
+
+	void close() {
+		retired = true;
+		if (!closed.compareAndSet(false, true))
+			return;
+		try {
+			if (sessionFactory.isOpen())
+				sessionFactory.close();
+		} finally {
+			if (pool != null)
+				pool.close();
+		}
+	}
+
+	private void release() {
+		if (open.decrementAndGet() == 0 && retired)
+			close();
+	}
+}
@@ -0,0 +1,218 @@
+package com.akmade.hibernate;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import org.hibernate.Session;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.akmade.hibernate.SessionUtility.*;
+
+/**
+ * A session bound to a data source for the duration of a lambda. Queries and
+ * transactions run on that data source while the lambda runs join the bound
+ * session instead of opening their own, so they share one unit of work. The
+ * session is committed and closed when the lambda returns, and rolled back
+ * and closed if it throws or a query in it failed.
+ *
+ * The binding lives only while the lambda runs and is removed afterwards, so
+ * pooled and virtual threads never keep a session. Work handed to
+ * {@link HibernateSessionFactory#runAsync}, or wrapped with {@link #wrap(Runnable)},
+ * {@link #wrap(Supplier)} or {@link #wrap(Executor)}, inherits the bindings
+ * of the thread that submitted it. A session is not thread-safe, so work
+ * sharing one runs one piece at a time; work still running after its scope
+ * has ended fails instead of using the closed session. Work that must run in
+ * sessions of its own, such as a {@link QryFanOut}, opts out with {@link #detach(Supplier)}.
+ */
+public final class SessionScope {
+	private static final ThreadLocal<Binding> BOUND = new ThreadLocal<>();
+
+	private final DataSource ds;
+	private final Session session;
+	private final ReentrantLock lock = new ReentrantLock();
+	private boolean rollbackOnly = false;
+	private boolean ended = false;
+
+	private SessionScope(DataSource ds, Session session) {
+		this.ds = ds;
+		this.session = session;
+	}
+
+	/**
+	 * Runs the work with a session bound to the data source. If a session is
+	 * already bound to it, the work joins that one.
+	 *
+	 * @return the work's result
+	 */
+	public static <T> T supply(DataSource ds, Supplier<T> work) {
+		Objects.requireNonNull(work);
+		if (current(ds).isPresent())
+			return work.get();
+		SessionScope scope = new SessionScope(ds, createSession(ds));
+		Binding previous = BOUND.get();
+		BOUND.set(new Binding(scope, previous));
+		T result;
+		try {
+			result = work.get();
+		} catch (RuntimeException | Error e) {
+			scope.end(false);
+			throw e;
+		} finally {
+			restore(previous);
+		}
+		scope.end(true);
+		return result;
+	}
+
+	public static void run(DataSource ds, Runnable work) {
+		Objects.requireNonNull(work);
+		supply(ds, () -> {
+			work.run();
+			return null;
+		});
+	}
+
+	/**
+	 * @return whether the current thread has a session bound to the data source
+	 */
+	public static boolean isBound(DataSource ds) {
+		return current(ds).isPresent();
+	}
+
+	/**
+	 * @return the session bound to the data source, if any; only use it on the
+	 * 	thread that bound it, as nothing else serializes access to it
+	 */
+	public static Optional<Session> currentSession(DataSource ds) {
+		return current(ds).map(scope -> scope.session);
+	}
+
+	static Optional<SessionScope> current(DataSource ds) {
+		for (Binding binding = BOUND.get(); binding != null; binding = binding.parent)
+			if (binding.scope.ds.equals(ds))
+				return Optional.of(binding.scope);
+		return Optional.empty();
+	}
+
+	/**
+	 * @return the task, running with the sessions bound to the current thread
+	 */
+	public static Runnable wrap(Runnable task) {
+		Objects.requireNonNull(task);
+		Binding captured = BOUND.get();
+		if (captured == null)
+			return task;
+		return () -> {
+			Binding previous = BOUND.get();
+			BOUND.set(captured);
+			try {
+				task.run();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	public static <T> Supplier<T> wrap(Supplier<T> task) {
+		Objects.requireNonNull(task);
+		Binding captured = BOUND.get();
+		if (captured == null)
+			return task;
+		return () -> {
+			Binding previous = BOUND.get();
+			BOUND.set(captured);
+			try {
+				return task.get();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	/**
+	 * @return the task, running outside any session scope, so the queries it
+	 * 	runs open sessions of their own even when it is run by inherited work
+	 */
+	public static <T> Supplier<T> detach(Supplier<T> task) {
+		Objects.requireNonNull(task);
+		return () -> {
+			Binding previous = BOUND.get();
+			BOUND.remove();
+			try {
+				return task.get();
+			} finally {
+				restore(previous);
+			}
+		};
+	}
+
+	/**
+	 * @return an executor whose tasks run with the sessions bound to the thread that submits them
+	 */
+	public static Executor wrap(Executor executor) {
+		Objects.requireNonNull(executor);
+		return task -> executor.execute(wrap(task));
+	}
+
+	private static void restore(Binding previous) {
+		if (previous == null)
+			BOUND.remove();
+		else
+			BOUND.set(previous);
+	}
+
+	/**
+	 * Runs work in the bound session, one piece at a time. A failure marks the
+	 * scope for rollback.
+	 */
+	<T> T execute(Function<Session, T> work, String description) {
+		lock.lock();
+		try {
+			if (ended)
+				throw logAndThrowError("The session scope on " + ds + " has ended");
+			try {
+				return work.apply(session);
+			} catch (Exception e) {
+				rollbackOnly = true;
+				throw logAndThrowError("Error running the " + description + ". " + e.getMessage());
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void end(boolean completed) {
+		lock.lock();
+		try {
+			ended = true;
+			if (completed && !rollbackOnly) {
+				try {
+					endSession(session);
+					return;
+				} catch (RuntimeException e) {
+					rollbackAndClose(session);
+					throw logAndThrowError("Error committing the session scope on " + ds + ". " + e.getMessage());
+				}
+			}
+			rollbackAndClose(session);
+		} finally {
+			lock.unlock();
+		}
+		if (completed)
+			throw logAndThrowError("The session scope on " + ds + " was rolled back after a failure");
+	}
+
+	private static final class Binding {
+		private final SessionScope scope;
+		private final Binding parent;
+
+		private Binding(SessionScope scope, Binding parent) {
+			this.scope = scope;
+			this.parent = parent;
+		}
+	}
+}
@@ -25,6 +25,19 @@ public class SessionUtility {
 		return session;
 	}
 
+	/**
+	 * Creates a session for reading only: entities and queries default to
+	 * read-only, so Hibernate keeps no snapshots to dirty check, and the
+	 * session is never flushed.
+	 */
+	protected static Session createReadOnlySession(HibernateSessionFactory.DataSource ds) {
+		return HibernateSessionFactory.getInstance().createReadSession(ds, session -> {
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setDefaultReadOnly(true);
+			session.beginTransaction();
+		});
+	}
+
 	protected static void rollbackAndClose(Session session){
 		rollback(session);
 		session.clear();
@@ -57,6 +70,18 @@ public class SessionUtility {
 	protected static void endSession(Session session){
 		commitAndClose(session);
 	}
+
+	/**
+	 * Ends a read-only session, committing without a flush so nothing is dirty checked.
+	 */
+	protected static void endReadOnlySession(Session session){
+		if (session != null && session.isOpen()) {
+			if(TransactionStatus.ACTIVE.equals(session.getTransaction().getStatus())){
+				session.getTransaction().commit();
+			}
+			session.close();
+		}
+	}
 	
 	protected void beginTransaction(Session session) {
 		if ((session.getTransaction() == null)||
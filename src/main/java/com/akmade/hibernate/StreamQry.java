@@ -0,0 +1,204 @@
+package com.akmade.hibernate;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.util.ChunkedServicePackagePublisher;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.Query;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.akmade.hibernate.BaseRepository.logAndThrowError;
+
+/**
+ * A query whose results are read as a {@link Stream}, through a forward-only
+ * cursor fetching a fixed number of rows at a time, so any number of rows can
+ * be scanned in constant memory.
+ *
+ * The stream holds its own session, transaction and cursor until it is
+ * closed, so always close it, e.g. with try-with-resources. By default it
+ * reads in a read-only session that is cleared after every fetch; a
+ * stateless session skips the first-level cache altogether, but loads no
+ * lazy associations.
+ *
+ * Some drivers need a particular fetch size to stream rather than buffer
+ * the whole result, e.g. {@code Integer.MIN_VALUE} for MySQL.
+ */
+public final class StreamQry<T> {
+	private static Logger logger = LoggerFactory.getLogger(StreamQry.class);
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	private final Function<SharedSessionContract, Query<T>> query;
+	private final int fetchSize;
+	private final boolean stateless;
+
+	private StreamQry(Builder<T> builder) {
+		this.query = builder.query_;
+		this.fetchSize = builder.fetchSize_;
+		this.stateless = builder.stateless_;
+	}
+
+	/**
+	 * @param query creates the query from the session, e.g. {@code s -> s.createQuery("from Boat", Boat.class)}
+	 */
+	public static <X> Builder<X> newBuilder(Function<SharedSessionContract, Query<X>> query) {
+		return new Builder<>(query);
+	}
+
+	/**
+	 * Opens a session and starts reading the results.
+	 *
+	 * @return the results; closing the stream closes the cursor, the transaction and the session
+	 */
+	public Stream<T> stream(DataSource ds) {
+		SharedSessionContract session = stateless
+				? HibernateSessionFactory.getInstance().createStatelessSession(ds)
+				: SessionUtility.createReadOnlySession(ds);
+		try {
+			if (stateless)
+				session.beginTransaction();
+			Query<T> q = query.apply(session);
+			q.setFetchSize(fetchSize);
+			if (!stateless)
+				q.setReadOnly(true);
+			ScrollableResults results = q.scroll(ScrollMode.FORWARD_ONLY);
+			Cursor cursor = new Cursor(session, results);
+			return StreamSupport.stream(Spliterators.spliteratorUnknownSize(cursor, Spliterator.ORDERED), false)
+					.onClose(cursor::close);
+		} catch (Exception e) {
+			end(session);
+			throw logAndThrowError("Error opening the streaming query. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return a publisher builder reading its chunks from a new stream of this query for each subscriber
+	 */
+	public ChunkedServicePackagePublisher.Builder<T> publisher(DataSource ds) {
+		return ChunkedServicePackagePublisher.newBuilder(() -> stream(ds));
+	}
+
+	private static void end(SharedSessionContract session) {
+		try {
+			if (session.isOpen() && TransactionStatus.ACTIVE.equals(session.getTransaction().getStatus()))
+				session.getTransaction().commit();
+		} catch (RuntimeException e) {
+			logger.warn("Failed ending the streaming query's transaction", e);
+		} finally {
+			session.close();
+		}
+	}
+
+	private class Cursor implements Iterator<T> {
+		private final SharedSessionContract session;
+		private final ScrollableResults results;
+		private final AtomicBoolean closed = new AtomicBoolean(false);
+		private T next = null;
+		private boolean pending = false;
+		private long read = 0;
+
+		private Cursor(SharedSessionContract session, ScrollableResults results) {
+			this.session = session;
+			this.results = results;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (pending)
+				return true;
+			if (closed.get())
+				return false;
+			try {
+				if (!results.next())
+					return false;
+				if (!stateless && read > 0 && read % clearInterval() == 0)
+					((Session) session).clear();
+				next = row(results.get());
+				pending = true;
+				read++;
+				return true;
+			} catch (RuntimeException e) {
+				close();
+				throw logAndThrowError("Error reading the streaming query.", e);
+			}
+		}
+
+		@Override
+		public T next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			T row = next;
+			next = null;
+			pending = false;
+			return row;
+		}
+
+		private int clearInterval() {
+			return fetchSize > 0 ? fetchSize : DEFAULT_FETCH_SIZE;
+		}
+
+		@SuppressWarnings("unchecked")
+		private T row(Object[] columns) {
+			return (T) (columns.length == 1 ? columns[0] : columns);
+		}
+
+		private void close() {
+			if (!closed.compareAndSet(false, true))
+				return;
+			try {
+				results.close();
+			} catch (RuntimeException e) {
+				logger.warn("Failed closing the streaming query's cursor", e);
+			} finally {
+				end(session);
+			}
+		}
+	}
+
+	public static class Builder<X> {
+		Function<SharedSessionContract, Query<X>> query_;
+		int fetchSize_ = DEFAULT_FETCH_SIZE;
+		boolean stateless_ = false;
+
+		private Builder(Function<SharedSessionContract, Query<X>> query) {
+			query_ = Objects.requireNonNull(query);
+		}
+
+		/**
+		 * @param fetchSize the number of rows the driver fetches at a time
+		 * @return this builder
+		 */
+		public Builder<X> fetchSize(int fetchSize) {
+			if (fetchSize < 1 && fetchSize != Integer.MIN_VALUE)
+				throw new IllegalArgumentException("Invalid fetch size: " + fetchSize);
+			fetchSize_ = fetchSize;
+			return this;
+		}
+
+		/**
+		 * @param stateless whether to read in a stateless session, on the primary data source
+		 * @return this builder
+		 */
+		public Builder<X> stateless(boolean stateless) {
+			stateless_ = stateless;
+			return this;
+		}
+
+		public StreamQry<X> build() {
+			return new StreamQry<>(this);
+		}
+	}
+}
@@ -7,6 +7,7 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import static com.akmade.hibernate.SessionUtility.*;
 
@@ -28,7 +29,17 @@ public class Transaction  {
 		return this;
 	}
 	
+	/**
+	 * Runs the transaction in its own session, or in the session bound to the
+	 * data source if it is run within a {@link SessionScope}, in which case it
+	 * commits when the scope ends.
+	 */
 	public void run(DataSource ds) {
+		Optional<SessionScope> scope = SessionScope.current(ds);
+		if (scope.isPresent()) {
+			scope.get().execute(transaction_::execute, "transaction");
+			return;
+		}
 		Session session = createSession(ds);
 		logger.info("Beginning Transaction!");
 		try {
@@ -42,6 +53,19 @@ public class Transaction  {
 		}
 	}
 	
+	/**
+	 * Runs the transaction without blocking the caller, on the data source's
+	 * async executor and within its concurrency limit.
+	 *
+	 * @see HibernateSessionFactory#runAsync(DataSource, java.util.function.Supplier)
+	 */
+	public CompletableFuture<Void> runAsync(DataSource ds) {
+		return HibernateSessionFactory.getInstance().runAsync(ds, () -> {
+			run(ds);
+			return null;
+		});
+	}
+	
 	@FunctionalInterface
 	public interface Txn<T> {
 		
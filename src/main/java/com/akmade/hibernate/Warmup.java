@@ -0,0 +1,36 @@
+package com.akmade.hibernate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What to do to a data source after its SessionFactory is built during
+ * {@link HibernateSessionFactory#bootstrap()}: how many pooled connections
+ * to open ahead of time, and which queries to run to warm caches and plans.
+ */
+public class Warmup {
+	public static final Warmup NONE = new Warmup(0, Collections.emptyList());
+
+	private final int connections;
+	private final List<Qry<?>> queries;
+
+	private Warmup(int connections, List<Qry<?>> queries) {
+		if (connections < 0)
+			throw new IllegalArgumentException("Warm-up connections must not be negative: " + connections);
+		this.connections = connections;
+		this.queries = Collections.unmodifiableList(queries);
+	}
+
+	public static Warmup of(int connections, Qry<?>... queries) {
+		return new Warmup(connections, Arrays.asList(queries));
+	}
+
+	public int getConnections() {
+		return connections;
+	}
+
+	public List<Qry<?>> getQueries() {
+		return queries;
+	}
+}
@@ -0,0 +1,258 @@
+package com.akmade.util;
+
+import com.akmade.common.proto.Msg;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Accumulates messages up to a configured limit, applying an {@link OverflowPolicy}
+ * once the limit is reached and counting how many messages were dropped.
+ *
+ * <p>When messages were dropped, {@link #toCollection()} appends a single WARNING
+ * summary message whose text is {@link #DROPPED_MESSAGE} and whose code is the number
+ * of dropped messages. Summary messages added to an accumulator are folded into its
+ * dropped count instead of being stored, so bounded sets can be merged repeatedly.
+ *
+ * <p>Instances are not thread safe.
+ */
+public class BoundedMessages {
+    public static final String DROPPED_MESSAGE = "Messages were dropped because the message limit was reached";
+
+    public enum OverflowPolicy {
+        /** Keep the first messages added, drop the rest. */
+        KEEP_FIRST,
+        /** Keep the messages with the highest severity, preferring earlier ones on ties. */
+        KEEP_HIGHEST_SEVERITY,
+        /** Keep a uniform random sample of all messages added. */
+        SAMPLE
+    }
+
+    private static volatile Limit defaultLimit = Limit.UNBOUNDED;
+
+    private static final Comparator<Entry> LOWEST_SEVERITY_LATEST_FIRST =
+            Comparator.<Entry>comparingInt(e -> e.msg.getSeverity().ordinal())
+                    .thenComparing(Comparator.<Entry>comparingLong(e -> e.sequence).reversed());
+
+    private final Limit limit;
+    private final List<Entry> kept;
+    private final PriorityQueue<Entry> bySeverity;
+    private long seen = 0;
+    private long dropped = 0;
+
+    private BoundedMessages(Limit limit) {
+        this.limit = Objects.requireNonNull(limit);
+        if (limit.policy == OverflowPolicy.KEEP_HIGHEST_SEVERITY && limit.isBounded()) {
+            this.kept = null;
+            this.bySeverity = new PriorityQueue<>(LOWEST_SEVERITY_LATEST_FIRST);
+        } else {
+            this.kept = new ArrayList<>();
+            this.bySeverity = null;
+        }
+    }
+
+    /**
+     * Creates an accumulator with the given limit.
+     * @param limit the limit and overflow policy to apply
+     * @return a new, empty accumulator
+     */
+    public static BoundedMessages of(Limit limit) {
+        return new BoundedMessages(limit);
+    }
+
+    /**
+     * Creates an accumulator with the process wide default limit.
+     * @return a new, empty accumulator
+     */
+    public static BoundedMessages withDefaultLimit() {
+        return new BoundedMessages(defaultLimit);
+    }
+
+    /**
+     * Bounds a collection of messages with the given limit.
+     * @param limit the limit and overflow policy to apply
+     * @param messages the messages to bound
+     * @return the bounded messages, with a summary message if any were dropped
+     */
+    public static Collection<Msg> bound(Limit limit, Collection<Msg> messages) {
+        return of(limit).addAll(messages).toCollection();
+    }
+
+    /**
+     * Bounds a persistent sequence of messages with the given limit, returning it as is
+     * when it is already within the limit.
+     * @param limit the limit and overflow policy to apply
+     * @param messages the messages to bound
+     * @return the bounded messages, with a summary message if any were dropped
+     */
+    public static Seq<Msg> bound(Limit limit, Seq<Msg> messages) {
+        return messages.size() <= limit.max
+                ? messages
+                : of(limit).addAll(messages.asJava()).toSeq();
+    }
+
+    public static Limit getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    /**
+     * Sets the limit used by the message producing APIs in this package when
+     * no limit is passed explicitly. Defaults to {@link Limit#UNBOUNDED}.
+     * @param limit the new default limit
+     */
+    public static void setDefaultLimit(Limit limit) {
+        defaultLimit = Objects.requireNonNull(limit);
+    }
+
+    /**
+     * Returns {@code true} if the message is a summary of dropped messages.
+     * @param msg the message to test
+     * @return {@code true} if the message was produced by {@link #toCollection()} to record dropped messages
+     */
+    public static boolean isDroppedSummary(Msg msg) {
+        return msg.getSeverity() == Msg.Severity.WARNING && DROPPED_MESSAGE.equals(msg.getMessage());
+    }
+
+    public BoundedMessages add(Msg msg) {
+        Objects.requireNonNull(msg);
+        if (isDroppedSummary(msg)) {
+            dropped += msg.getCode();
+            return this;
+        }
+        Entry entry = new Entry(seen++, msg);
+        if (size() < limit.max) {
+            store(entry);
+            return this;
+        }
+        dropped++;
+        switch (limit.policy) {
+            case KEEP_HIGHEST_SEVERITY:
+                if (!bySeverity.isEmpty() && LOWEST_SEVERITY_LATEST_FIRST.compare(entry, bySeverity.peek()) > 0) {
+                    bySeverity.poll();
+                    bySeverity.add(entry);
+                }
+                break;
+            case SAMPLE:
+                long slot = ThreadLocalRandom.current().nextLong(entry.sequence + 1);
+                if (slot < limit.max)
+                    kept.set((int) slot, entry);
+                break;
+            default:
+                break;
+        }
+        return this;
+    }
+
+    public BoundedMessages addAll(Collection<Msg> messages) {
+        messages.forEach(this::add);
+        return this;
+    }
+
+    public int size() {
+        return kept != null ? kept.size() : bySeverity.size();
+    }
+
+    /**
+     * @return the number of messages dropped so far, including those recorded by merged summaries
+     */
+    public long dropped() {
+        return dropped;
+    }
+
+    public Limit limit() {
+        return limit;
+    }
+
+    /**
+     * Returns the kept messages in the order they were added, followed by a
+     * summary message if any messages were dropped.
+     * @return an unmodifiable collection of the kept messages
+     */
+    public Collection<Msg> toCollection() {
+        return toSeq().asJava();
+    }
+
+    /**
+     * Returns the kept messages as a persistent sequence, in the order they were added,
+     * followed by a summary message if any messages were dropped.
+     * @return a persistent sequence of the kept messages
+     */
+    public Seq<Msg> toSeq() {
+        Collection<Entry> entries = kept != null ? kept : bySeverity;
+        Queue<Msg> result = Queue.ofAll(entries.stream()
+                .sorted(Comparator.comparingLong(e -> e.sequence))
+                .map(e -> e.msg));
+        return dropped > 0
+                ? result.append(droppedSummary(dropped))
+                : result;
+    }
+
+    private void store(Entry entry) {
+        if (kept != null)
+            kept.add(entry);
+        else
+            bySeverity.add(entry);
+    }
+
+    private static Msg droppedSummary(long count) {
+        return Msg.newBuilder()
+                .setSeverity(Msg.Severity.WARNING)
+                .setCode(count)
+                .setMessage(DROPPED_MESSAGE)
+                .build();
+    }
+
+    private static class Entry {
+        final long sequence;
+        final Msg msg;
+
+        Entry(long sequence, Msg msg) {
+            this.sequence = sequence;
+            this.msg = msg;
+        }
+    }
+
+    /**
+     * The maximum number of messages to keep and the policy to apply past it.
+     */
+    public static class Limit {
+        public static final Limit UNBOUNDED = new Limit(Integer.MAX_VALUE, OverflowPolicy.KEEP_FIRST);
+
+        private final int max;
+        private final OverflowPolicy policy;
+
+        private Limit(int max, OverflowPolicy policy) {
+            if (max < 0)
+                throw new IllegalArgumentException("Message limit must not be negative: " + max);
+            this.max = max;
+            this.policy = Objects.requireNonNull(policy);
+        }
+
+        public static Limit of(int max, OverflowPolicy policy) {
+            return new Limit(max, policy);
+        }
+
+        public static Limit keepFirst(int max) {
+            return of(max, OverflowPolicy.KEEP_FIRST);
+        }
+
+        public int max() {
+            return max;
+        }
+
+        public OverflowPolicy policy() {
+            return policy;
+        }
+
+        public boolean isBounded() {
+            return max != Integer.MAX_VALUE;
+        }
+    }
+}
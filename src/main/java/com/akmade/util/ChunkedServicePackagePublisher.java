@@ -0,0 +1,213 @@
+package com.akmade.util;
+
+import com.akmade.common.proto.Msg;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static com.akmade.util.MessageUtility.MAKE_EXCEPTION;
+
+/**
+ * Publishes the items of a {@link Stream} as {@link ServicePackageChunk}s, reading the
+ * stream only as fast as the subscriber requests chunks, so no more than one chunk of
+ * items is held in memory at a time.
+ *
+ * <p>Each subscriber gets its own stream from the source supplier. After the last batch
+ * a trailer chunk carrying the summary messages is published, followed by
+ * {@code onComplete}. If reading the stream fails, the items read so far are published
+ * and the trailer also carries an EXCEPTION message. The stream is closed on completion, failure or cancellation.
+ *
+ * <p>Chunks are read and delivered on the configured executor, which defaults to the
+ * common pool; use a dedicated executor when the stream blocks on the database.
+ * @param <T> - The type of the items published.
+ */
+public class ChunkedServicePackagePublisher<T> implements Flow.Publisher<ServicePackageChunk<T>> {
+    private final Supplier<Stream<T>> source;
+    private final int chunkSize;
+    private final Executor executor;
+    private final Function<List<T>, Collection<Msg>> chunkMessages;
+    private final Function<Long, Collection<Msg>> summary;
+
+    private ChunkedServicePackagePublisher(Builder<T> builder) {
+        this.source = builder.source_;
+        this.chunkSize = builder.chunkSize_;
+        this.executor = builder.executor_;
+        this.chunkMessages = builder.chunkMessages_;
+        this.summary = builder.summary_;
+    }
+
+    public static <X> Builder<X> newBuilder(Supplier<Stream<X>> source) {
+        return new Builder<>(source);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ServicePackageChunk<T>> subscriber) {
+        Objects.requireNonNull(subscriber);
+        ChunkSubscription subscription = new ChunkSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+    }
+
+    private class ChunkSubscription implements Flow.Subscription, Runnable {
+        private final Flow.Subscriber<? super ServicePackageChunk<T>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile Throwable invalidRequest = null;
+
+        // only touched by the draining thread
+        private Stream<T> stream;
+        private Iterator<T> iterator;
+        private Collection<Msg> failure = null;
+        private long count = 0;
+        private boolean done = false;
+
+        ChunkSubscription(Flow.Subscriber<? super ServicePackageChunk<T>> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested chunks must be positive: " + n);
+            } else {
+                demand.getAndAccumulate(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0)
+                executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (done)
+                return;
+            if (cancelled) {
+                finish();
+                return;
+            }
+            if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+            while (demand.get() > 0 && !cancelled) {
+                ServicePackageChunk<T> chunk = nextChunk();
+                demand.decrementAndGet();
+                if (chunk.isTrailer()) {
+                    finish();
+                    subscriber.onNext(chunk);
+                    subscriber.onComplete();
+                    return;
+                }
+                subscriber.onNext(chunk);
+            }
+            if (cancelled)
+                finish();
+        }
+
+        private ServicePackageChunk<T> nextChunk() {
+            if (failure == null) {
+                List<T> items = new ArrayList<>(chunkSize);
+                try {
+                    if (iterator == null) {
+                        stream = source.get();
+                        iterator = stream.iterator();
+                    }
+                    while (items.size() < chunkSize && iterator.hasNext())
+                        items.add(iterator.next());
+                } catch (RuntimeException e) {
+                    failure = Collections.singletonList(MAKE_EXCEPTION.apply("Error streaming results. " + e.getMessage()));
+                }
+                if (!items.isEmpty()) {
+                    count += items.size();
+                    return ServicePackageChunk.of(items, chunkMessages.apply(items));
+                }
+            }
+            List<Msg> trailer = new ArrayList<>(summary.apply(count));
+            if (failure != null)
+                trailer.addAll(failure);
+            return ServicePackageChunk.trailer(trailer);
+        }
+
+        private void finish() {
+            done = true;
+            if (stream != null)
+                stream.close();
+        }
+    }
+
+    public static class Builder<X> {
+        Supplier<Stream<X>> source_;
+        int chunkSize_ = 500;
+        Executor executor_ = ForkJoinPool.commonPool();
+        Function<List<X>, Collection<Msg>> chunkMessages_ = items -> Collections.emptyList();
+        Function<Long, Collection<Msg>> summary_ = count -> Collections.emptyList();
+
+        private Builder(Supplier<Stream<X>> source) {
+            source_ = Objects.requireNonNull(source);
+        }
+
+        public Builder<X> chunkSize(int chunkSize) {
+            if (chunkSize < 1)
+                throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+            chunkSize_ = chunkSize;
+            return this;
+        }
+
+        public Builder<X> executor(Executor executor) {
+            executor_ = Objects.requireNonNull(executor);
+            return this;
+        }
+
+        /**
+         * @param chunkMessages produces the messages for each batch of items
+         * @return this builder
+         */
+        public Builder<X> withChunkMessages(Function<List<X>, Collection<Msg>> chunkMessages) {
+            chunkMessages_ = Objects.requireNonNull(chunkMessages);
+            return this;
+        }
+
+        /**
+         * @param summary produces the trailer messages from the total number of items published
+         * @return this builder
+         */
+        public Builder<X> withSummary(Function<Long, Collection<Msg>> summary) {
+            summary_ = Objects.requireNonNull(summary);
+            return this;
+        }
+
+        public ChunkedServicePackagePublisher<X> build() {
+            return new ChunkedServicePackagePublisher<>(this);
+        }
+    }
+}
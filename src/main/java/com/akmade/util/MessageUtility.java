@@ -48,5 +48,9 @@ public class MessageUtility {
     public static final Function<Collection<Msg>, MsgList> MAKE_MSG_LIST =
             msgs -> MsgList.newBuilder().addAllMessages(msgs).build();
 
+    public static Function<Collection<Msg>, MsgList> makeBoundedMsgList(BoundedMessages.Limit limit) {
+        return msgs -> MAKE_MSG_LIST.apply(BoundedMessages.bound(limit, msgs));
+    }
+
 
 }
@@ -0,0 +1,94 @@
+package com.akmade.util;
+
+import com.akmade.common.proto.Msg;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * One page of a larger result, with an opaque cursor for fetching the next page
+ * and the messages produced while fetching this one.
+ * @param <T> - The type of the items on the page.
+ */
+public class PagedServicePackage<T> {
+
+    private static final Seq<Msg> EMPTY_MESSAGES = Queue.empty();
+    private final List<T> items;
+    private final String cursor;
+    private final Seq<Msg> msg;
+
+    private PagedServicePackage(List<T> items, String cursor, Seq<Msg> msg) {
+        this.items = Collections.unmodifiableList(Objects.requireNonNull(items));
+        this.cursor = cursor;
+        this.msg = msg;
+    }
+
+    /**
+     * Creates a page followed by more results.
+     * @param items the items on the page
+     * @param cursor the cursor for the next page, or {@code null} if this is the last page
+     * @param <X> the type of the items
+     * @return the page
+     */
+    public static <X> PagedServicePackage<X> of (List<X> items, String cursor) {
+        return new PagedServicePackage<>(items, cursor, EMPTY_MESSAGES);
+    }
+
+    /**
+     * Creates a page with messages, bounded by the {@link BoundedMessages#getDefaultLimit() default limit}.
+     */
+    public static <X> PagedServicePackage<X> of (List<X> items, String cursor, Collection<Msg> messages) {
+        return new PagedServicePackage<>(items, cursor, BoundedMessages.bound(BoundedMessages.getDefaultLimit(), Queue.ofAll(messages)));
+    }
+
+    public static <X> PagedServicePackage<X> lastPage(List<X> items) {
+        return of(items, null);
+    }
+
+    /**
+     * Creates an empty last page carrying only messages, e.g. when the cursor could not be read.
+     * @param messages the messages explaining why there are no items
+     * @param <X> the type of the items
+     * @return the page
+     */
+    public static <X> PagedServicePackage<X> empty(Collection<Msg> messages) {
+        return of(Collections.emptyList(), null, messages);
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    /**
+     * @return the cursor for the next page, or empty if this is the last page
+     */
+    public Optional<String> cursor() {
+        return Optional.ofNullable(cursor);
+    }
+
+    public boolean hasMore() {
+        return cursor != null;
+    }
+
+    public Collection<Msg> messages() {
+        return msg.asJava();
+    }
+
+    /**
+     * Maps the items on the page, keeping the cursor and messages.
+     * @param mapper the mapping function to apply to each item
+     * @param <U> the type of the mapped items
+     * @return a page of the mapped items
+     */
+    public <U> PagedServicePackage<U> map(Function<? super T, ? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return new PagedServicePackage<>(items.stream().map(mapper).collect(Collectors.toList()), cursor, msg);
+    }
+}
@@ -1,13 +1,14 @@
 package com.akmade.util;
 
 import com.akmade.common.proto.Msg;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
 
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.akmade.util.MessageUtility.MAKE_ERROR;
@@ -15,19 +16,24 @@ import static com.akmade.util.MessageUtility.MAKE_ERROR;
 /**
  * A Reply is a form of an optional, but it contains a collection of Strings
  * describing why there is no object
+ *
+ * <p>Messages are held in a persistent {@link Queue}, so appending a message shares
+ * the existing messages instead of copying them, and an empty Reply propagated
+ * through {@link #map(Function)} or {@link #flatMap(Function)} is passed on as is.
  * @param <T> - The type of object contained in the Reply.
  */
 public class Reply<T> {
     public static final Msg EMPTY_MESSAGE = MAKE_ERROR.apply("There is no object");
+    private static final Queue<Msg> EMPTY_MESSAGES = Queue.of(EMPTY_MESSAGE);
     private T object;
-    private Collection<Msg> messages;
+    private Queue<Msg> messages;
 
     /**
      * Constructs an empty instance, with a default message.
      */
     private Reply() {
         this.object = null;
-        messages = new ArrayList<Msg>(){{add(EMPTY_MESSAGE);}};
+        messages = EMPTY_MESSAGES;
     }
 
     /**
@@ -41,9 +47,9 @@ public class Reply<T> {
 
     /**
      * Constructs an empty instance, with the passed in Messages as the messages.
-     * @param messages A {@link Collection} of messages.
+     * @param messages A persistent {@link Queue} of messages.
      */
-    private Reply(Collection<Msg> messages) {
+    private Reply(Queue<Msg> messages) {
         this.object = null;
         this.messages = Objects.requireNonNull(messages);
     }
@@ -69,6 +75,18 @@ public class Reply<T> {
         return empty(Arrays.asList(messages));
     }
 
+    /**
+     * Creates an empty instance with the passed in messages, sharing them rather than copying
+     * when they are already held in a {@link Queue} and within the default message limit.
+     *
+     * @param messages - a persistent sequence of messages
+     * @param <T> - The type of the non-existent value
+     * @return an empty {@code Reply}
+     */
+    public static <T> Reply<T> empty(Seq<Msg> messages) {
+        return new Reply<>(Queue.ofAll(BoundedMessages.bound(BoundedMessages.getDefaultLimit(), messages)));
+    }
+
     /**
      *  Creates an empty instance with the varargs messages as the only {@code Reply} messages
      *
@@ -78,9 +96,29 @@ public class Reply<T> {
      */
     @SafeVarargs
     public static <T> Reply<T> empty(Collection<Msg>...messages) {
-        return new Reply<>(Arrays.stream(messages)
-                .flatMap(Collection::stream)
-                .collect(Collectors.toList()));
+        return empty(BoundedMessages.getDefaultLimit(), messages);
+    }
+
+    /**
+     *  Creates an empty instance with the varargs messages as the only {@code Reply} messages,
+     *  keeping at most as many messages as the limit allows.
+     *
+     * @param limit - the limit and overflow policy applied to the merged messages
+     * @param messages - a varargs of Collections of Messages
+     * @param <T> - The type of the non-existent value
+     * @return an empty {@code Reply}
+     */
+    @SafeVarargs
+    public static <T> Reply<T> empty(BoundedMessages.Limit limit, Collection<Msg>...messages) {
+        if (!limit.isBounded()) {
+            Queue<Msg> merged = Queue.empty();
+            for (Collection<Msg> collection : messages)
+                merged = merged.appendAll(collection);
+            return new Reply<>(merged);
+        }
+        BoundedMessages bounded = BoundedMessages.of(limit);
+        Arrays.stream(messages).forEach(bounded::addAll);
+        return new Reply<>(Queue.ofAll(bounded.toSeq()));
     }
 
     /**
@@ -127,7 +165,9 @@ public class Reply<T> {
      * @throws NullPointerException if optional is {@code null}
      */
     public static <T> Reply<T> ofOptional(Optional<T> optional, Msg message) {
-        return ofOptional(optional, new ArrayList<Msg>(){{add(message);}});
+        Objects.requireNonNull(optional);
+        return optional.map(Reply::of)
+                .orElseGet(() -> Reply.empty(message));
     }
 
     /**
@@ -205,13 +245,29 @@ public class Reply<T> {
      * If a messages are populated, returns them, otherwise throws
      * {@code NoSuchElementException}.
      *
-     * @return the non-{@code null} messages
+     * The messages are a read-only view: adding to or removing from them throws
+     * {@code UnsupportedOperationException}, where they used to be the reply's
+     * own mutable list. Copy them, or append to {@link #messageSeq()}, instead.
+     *
+     * @return the non-{@code null} messages, read-only
      * @throws NoSuchElementException if no value is present
      */
     public Collection<Msg> messages() {
         if (messages == null)
             throw new NoSuchElementException("There are no messages");
-        return messages;
+        return messages.asJava();
+    }
+
+    /**
+     * Returns the messages as a persistent sequence that can be appended to or
+     * concatenated without copying, or an empty sequence if a value is present.
+     *
+     * @return the messages, never {@code null}
+     */
+    public Seq<Msg> messageSeq() {
+        return messages == null
+                ? Queue.empty()
+                : messages;
     }
 
     /**
@@ -219,12 +275,12 @@ public class Reply<T> {
      *
      * @param messages the messages to be returned, if none are present.
      *        May be {@code null}.
-     * @return the messages, if present, otherwise {@code messages}
+     * @return the messages, read-only, if present, otherwise {@code messages}
      */
     public Collection<Msg> messagesOrElse(Collection<Msg> messages) {
         if (this.messages == null)
             return messages;
-        return this.messages;
+        return this.messages.asJava();
     }
 
     /**
@@ -335,7 +391,7 @@ public class Reply<T> {
     public <U> Reply<U> map(Function<? super T, ? extends U> mapper) {
         Objects.requireNonNull(mapper);
         if (!isPresent()) {
-            return empty(this.messages);
+            return propagate();
         } else {
             return Reply.ofNullable(mapper.apply(object));
         }
@@ -363,7 +419,7 @@ public class Reply<T> {
     public <U> Reply<U> flatMap(Function<? super T, ? extends Reply<? extends U>> mapper) {
         Objects.requireNonNull(mapper);
         if (!isPresent()) {
-            return empty(this.messages);
+            return propagate();
         } else {
             @SuppressWarnings("unchecked")
             Reply<U> r = (Reply<U>) mapper.apply(object);
@@ -371,6 +427,15 @@ public class Reply<T> {
         }
     }
 
+    /**
+     * Passes an empty {@code Reply} on under a new value type. An empty Reply
+     * holds no value, so it is safe to share the instance and its messages.
+     */
+    @SuppressWarnings("unchecked")
+    private <U> Reply<U> propagate() {
+        return (Reply<U>) this;
+    }
+
     /**
      * If a value is present, returns an {@code Reply} describing the value,
      * otherwise returns an {@code Reply} produced by the supplying function.
@@ -1,39 +1,139 @@
 package com.akmade.util;
 
 import com.akmade.common.proto.Msg;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
+/**
+ * An immutable response: the object produced by a service, which may be {@code null},
+ * and the messages produced with it.
+ *
+ * <p>Messages are held in a persistent {@link Queue}, so packages derived with
+ * {@link #map(Function)} or {@link #withMessages(Collection)} share them rather than
+ * copying. Packages without messages all share one empty message set, and the
+ * package without an object or messages is a single shared instance.
+ * Messages passed or appended are kept within the {@link BoundedMessages} default limit.
+ * @param <T> - The type of object contained in the package.
+ */
 public class ServicePackage<T> {
 
-    private static final Collection<Msg> EMPTY_MESSAGES = new ArrayList<>();
-    T object;
-    Collection<Msg> msg;
+    private static final Seq<Msg> EMPTY_MESSAGES = Queue.empty();
+    private static final ServicePackage<?> EMPTY = new ServicePackage<>(null, EMPTY_MESSAGES);
+    private final T object;
+    private final Seq<Msg> msg;
 
-    private ServicePackage(T object, Collection<Msg> msg) {
+    private ServicePackage(T object, Seq<Msg> msg) {
         this.object = object;
         this.msg = msg;
     }
 
+    @SuppressWarnings("unchecked")
+    private static <X> ServicePackage<X> create(X object, Seq<Msg> messages) {
+        if (messages.isEmpty())
+            return object == null
+                    ? (ServicePackage<X>) EMPTY
+                    : new ServicePackage<>(object, EMPTY_MESSAGES);
+        return new ServicePackage<>(object, messages);
+    }
+
     public static <X> ServicePackage<X> of (X object) {
-        return new ServicePackage<>(object, EMPTY_MESSAGES);
+        return create(object, EMPTY_MESSAGES);
     }
 
     public static <X> ServicePackage<X> of (X object, Collection<Msg> messages) {
-        return new ServicePackage<>(object, messages);
+        return of(object, messages, BoundedMessages.getDefaultLimit());
+    }
+
+    public static <X> ServicePackage<X> of (X object, Collection<Msg> messages, BoundedMessages.Limit limit) {
+        if (messages.isEmpty())
+            return create(object, EMPTY_MESSAGES);
+        return create(object, limit.isBounded()
+                ? BoundedMessages.of(limit).addAll(messages).toSeq()
+                : Queue.ofAll(messages));
+    }
+
+    public static <X> ServicePackage<X> of (X object, Seq<Msg> messages) {
+        return create(object, bounded(Objects.requireNonNull(messages)));
     }
 
     public static <X> ServicePackage<X> ofReply(Reply<X> reply, X start) {
-        return new ServicePackage<>(reply.orElse(start), reply.messagesOrElse(EMPTY_MESSAGES));
+        return create(reply.orElse(start), reply.messageSeq());
     }
 
     public static <X> ServicePackage<X> ofOptional(Reply<Optional<X>> reply, X start) {
-        return new ServicePackage<>(reply.orElse(Optional.empty()).orElse(start), reply.messagesOrElse(EMPTY_MESSAGES));
+        return create(reply.orElse(Optional.empty()).orElse(start), reply.messageSeq());
+    }
+
+    /**
+     * @return the object, which may be {@code null}
+     */
+    public T get() {
+        return object;
+    }
+
+    public Optional<T> toOptional() {
+        return Optional.ofNullable(object);
     }
 
+    /**
+     * @return an unmodifiable view of the messages
+     */
+    public Collection<Msg> messages() {
+        return msg.isEmpty()
+                ? Collections.emptyList()
+                : msg.asJava();
+    }
+
+    /**
+     * @return the messages as a persistent sequence
+     */
+    public Seq<Msg> messageSeq() {
+        return msg;
+    }
+
+    public boolean hasMessages() {
+        return !msg.isEmpty();
+    }
+
+    /**
+     * Maps the object, keeping the messages. A {@code null} object is passed to the mapper as is.
+     * @param mapper the mapping function to apply to the object
+     * @param <U> the type of the mapped object
+     * @return a package of the mapped object sharing this package's messages
+     */
+    public <U> ServicePackage<U> map(Function<? super T, ? extends U> mapper) {
+        Objects.requireNonNull(mapper);
+        return create(mapper.apply(object), msg);
+    }
+
+    /**
+     * Appends messages, keeping the object. The existing messages are shared, not copied.
+     * @param messages the messages to append
+     * @return a package with the combined messages, or this package if there are none to add
+     */
+    public ServicePackage<T> withMessages(Collection<Msg> messages) {
+        return messages.isEmpty()
+                ? this
+                : create(object, bounded(msg.appendAll(messages)));
+    }
 
+    public ServicePackage<T> withMessages(Seq<Msg> messages) {
+        return messages.isEmpty()
+                ? this
+                : create(object, bounded(msg.isEmpty() ? messages : msg.appendAll(messages)));
+    }
 
+    public ServicePackage<T> withMessage(Msg message) {
+        return create(object, bounded(msg.append(Objects.requireNonNull(message))));
+    }
 
+    private static Seq<Msg> bounded(Seq<Msg> messages) {
+        return BoundedMessages.bound(BoundedMessages.getDefaultLimit(), messages);
+    }
 }
@@ -0,0 +1,48 @@
+package com.akmade.util;
+
+import com.akmade.common.proto.Msg;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One chunk of a streamed response: a batch of items and the messages produced with it.
+ * The last chunk of a stream is a trailer, which carries no items, only summary messages.
+ * @param <T> - The type of the items in the chunk.
+ */
+public class ServicePackageChunk<T> {
+
+    private final List<T> items;
+    private final Seq<Msg> msg;
+    private final boolean trailer;
+
+    private ServicePackageChunk(List<T> items, Seq<Msg> msg, boolean trailer) {
+        this.items = Collections.unmodifiableList(Objects.requireNonNull(items));
+        this.msg = Objects.requireNonNull(msg);
+        this.trailer = trailer;
+    }
+
+    public static <X> ServicePackageChunk<X> of (List<X> items, Collection<Msg> messages) {
+        return new ServicePackageChunk<>(items, Queue.ofAll(messages), false);
+    }
+
+    public static <X> ServicePackageChunk<X> trailer(Collection<Msg> messages) {
+        return new ServicePackageChunk<>(Collections.emptyList(), Queue.ofAll(messages), true);
+    }
+
+    public List<T> items() {
+        return items;
+    }
+
+    public Collection<Msg> messages() {
+        return msg.asJava();
+    }
+
+    public boolean isTrailer() {
+        return trailer;
+    }
+}
@@ -0,0 +1,160 @@
+package com.akmade.util;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.common.proto.ServicePackageEnvelope;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.MessageLite;
+import com.google.protobuf.Parser;
+import io.vavr.collection.Queue;
+import io.vavr.collection.Seq;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+/**
+ * Converts {@link ServicePackage}s to and from the {@link ServicePackageEnvelope} wire format.
+ *
+ * <p>Payloads are carried as serialized bytes. A package whose payload is already a
+ * {@link ByteString} is enveloped as is, and an {@link EnvelopeWriter} writes payload
+ * messages straight to the output stream, so a payload is serialized at most once.
+ */
+public class ServicePackageUtility {
+
+    /**
+     * Envelopes a package with a protobuf payload, using the payload's class name as its type.
+     * @param servicePackage the package to envelope
+     * @param <X> the payload type
+     * @return the envelope
+     */
+    public static <X extends MessageLite> ServicePackageEnvelope toEnvelope(ServicePackage<X> servicePackage) {
+        X object = servicePackage.get();
+        return object == null
+                ? envelope("", ByteString.EMPTY, servicePackage.messageSeq())
+                : envelope(object.getClass().getName(), object.toByteString(), servicePackage.messageSeq());
+    }
+
+    /**
+     * Envelopes a package whose payload has already been serialized, without copying the payload.
+     * @param servicePackage the package to envelope
+     * @param payloadType the type name of the serialized payload
+     * @return the envelope
+     */
+    public static ServicePackageEnvelope toEnvelope(ServicePackage<ByteString> servicePackage, String payloadType) {
+        ByteString payload = servicePackage.get();
+        return payload == null
+                ? envelope("", ByteString.EMPTY, servicePackage.messageSeq())
+                : envelope(payloadType, payload, servicePackage.messageSeq());
+    }
+
+    /**
+     * Unwraps an envelope, parsing the payload with the given parser.
+     * An envelope without a payload type yields a package with a {@code null} object.
+     * @param envelope the envelope to unwrap
+     * @param parser the parser for the payload type
+     * @param <X> the payload type
+     * @return the package
+     * @throws InvalidProtocolBufferException if the payload cannot be parsed
+     */
+    public static <X> ServicePackage<X> fromEnvelope(ServicePackageEnvelope envelope, Parser<X> parser)
+            throws InvalidProtocolBufferException {
+        X object = envelope.getPayloadType().isEmpty()
+                ? null
+                : parser.parseFrom(envelope.getPayload());
+        return ServicePackage.of(object, messages(envelope));
+    }
+
+    /**
+     * Unwraps an envelope, leaving the payload serialized so it can be forwarded without re-encoding.
+     * @param envelope the envelope to unwrap
+     * @return the package, with a {@code null} object if the envelope has no payload type
+     */
+    public static ServicePackage<ByteString> fromEnvelope(ServicePackageEnvelope envelope) {
+        ByteString object = envelope.getPayloadType().isEmpty()
+                ? null
+                : envelope.getPayload();
+        return ServicePackage.of(object, messages(envelope));
+    }
+
+    /**
+     * Creates a writer that streams a single envelope to the output stream.
+     * @param out the stream to write to
+     * @return a new writer
+     */
+    public static EnvelopeWriter newWriter(OutputStream out) {
+        return new EnvelopeWriter(CodedOutputStream.newInstance(out));
+    }
+
+    private static ServicePackageEnvelope envelope(String payloadType, ByteString payload, Seq<Msg> messages) {
+        return ServicePackageEnvelope.newBuilder()
+                .setPayloadType(payloadType)
+                .setPayload(payload)
+                .addAllMessages(messages)
+                .build();
+    }
+
+    private static Seq<Msg> messages(ServicePackageEnvelope envelope) {
+        return envelope.getMessagesCount() == 0
+                ? Queue.empty()
+                : Queue.ofAll(envelope.getMessagesList());
+    }
+
+    /**
+     * Writes the fields of one {@link ServicePackageEnvelope} as they become available.
+     * Messages may be written before or after the payload, and the payload is written
+     * directly from its source without an intermediate copy. Call {@link #flush()} when done.
+     */
+    public static class EnvelopeWriter {
+        private final CodedOutputStream out;
+
+        private EnvelopeWriter(CodedOutputStream out) {
+            this.out = out;
+        }
+
+        private void writePayloadType(String payloadType) throws IOException {
+            out.writeString(ServicePackageEnvelope.PAYLOAD_TYPE_FIELD_NUMBER, Objects.requireNonNull(payloadType));
+        }
+
+        /**
+         * Writes the payload type and an already serialized payload.
+         * @param payloadType the payload type, so that {@code fromEnvelope} knows there is a payload
+         * @param payload the serialized payload
+         * @return this writer
+         * @throws IOException if writing fails
+         */
+        public EnvelopeWriter writePayload(String payloadType, ByteString payload) throws IOException {
+            writePayloadType(payloadType);
+            out.writeBytes(ServicePackageEnvelope.PAYLOAD_FIELD_NUMBER, payload);
+            return this;
+        }
+
+        /**
+         * Writes the payload type and the payload, serializing the payload straight to the stream.
+         * @param payload the payload message
+         * @return this writer
+         * @throws IOException if writing fails
+         */
+        public EnvelopeWriter writePayload(MessageLite payload) throws IOException {
+            writePayloadType(payload.getClass().getName());
+            out.writeMessage(ServicePackageEnvelope.PAYLOAD_FIELD_NUMBER, payload);
+            return this;
+        }
+
+        public EnvelopeWriter writeMessage(Msg msg) throws IOException {
+            out.writeMessage(ServicePackageEnvelope.MESSAGES_FIELD_NUMBER, msg);
+            return this;
+        }
+
+        public EnvelopeWriter writeMessages(Iterable<Msg> messages) throws IOException {
+            for (Msg msg : messages)
+                writeMessage(msg);
+            return this;
+        }
+
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
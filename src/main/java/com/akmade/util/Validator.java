@@ -8,14 +8,15 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
 
 public class Validator<T> {
     Collection<ValidationItem> items;
+    BoundedMessages.Limit limit;
 
     private Validator (Builder<T> builder) {
         this.items = builder.items_;
+        this.limit = builder.limit_;
     }
 
 
@@ -32,18 +33,22 @@ public class Validator<T> {
 
 
     public Reply<T> validate(T t) {
-              return items.stream()
-                    .map(i -> makeValidation.apply(i))
-                    .map(v -> v.apply(t))
-                    .reduce((r1, r2) ->  (r1.isPresent()&&r2.isPresent())
-                                        ? r1
-                                        : Reply.empty(r1.messagesOrElseGet(ArrayList::new), r1.messagesOrElseGet(ArrayList::new)))
-                      .orElse(Reply.empty());
+        if (items.isEmpty())
+            return Reply.empty();
+        BoundedMessages failures = BoundedMessages.of(limit);
+        items.stream()
+                .map(i -> makeValidation.apply(i, t))
+                .filter(r -> !r.isPresent())
+                .forEach(r -> failures.addAll(r.messages()));
+        return failures.size() == 0 && failures.dropped() == 0
+                ? Reply.of(t)
+                : Reply.empty(limit, failures.toCollection());
     }
 
 
     public static class Builder<X> {
         Collection<ValidationItem> items_ = new ArrayList<>();
+        BoundedMessages.Limit limit_ = BoundedMessages.getDefaultLimit();
 
         public Builder<X> addValidation(Predicate predicate, Msg msg) {
             items_.add(ValidationItem.test(predicate, msg));
@@ -65,6 +70,11 @@ public class Validator<T> {
             return this;
         }
 
+        public Builder<X> withMessageLimit(BoundedMessages.Limit limit) {
+            limit_ = limit;
+            return this;
+        }
+
         public Validator<X> build() {
             return new Validator<>(this);
         }
@@ -0,0 +1,153 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import com.akmade.hibernate.Qry;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class AsyncQryTest {
+
+    private static int mostRunning(HibernateSessionFactory factory, DataSource ds, int tasks) throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger mostRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(factory.runAsync(ds, () -> {
+                mostRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return running.decrementAndGet();
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+        return mostRunning.get();
+    }
+
+    @Test
+    public void runAsyncTest() throws Exception {
+        Boat boat = BoatRepository.save(new Boat("Petrel", 22)).runAsync(DataSource.DEFAULT).get(5, TimeUnit.SECONDS).get();
+        Optional<Boat> found = BoatRepository.find(boat.getId()).runAsync(DataSource.DEFAULT).get(5, TimeUnit.SECONDS);
+        assertEquals("Petrel", found.get().getName());
+    }
+
+    @Test
+    public void concurrencyLimitTest() throws Exception {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        factory.setAsyncConcurrency(DataSource.DEFAULT, 2);
+        try {
+            assertEquals(2, mostRunning(factory, DataSource.DEFAULT, 8));
+        } finally {
+            factory.setAsyncConcurrency(DataSource.DEFAULT, HibernateSessionFactory.DEFAULT_ASYNC_CONCURRENCY);
+        }
+
+        Qry<Integer> failing = session -> {
+            throw new IllegalStateException("no such table");
+        };
+        try {
+            failing.runAsync(DataSource.DEFAULT).join();
+            fail();
+        } catch (Exception e) {
+            assertTrue(e.getMessage().contains("no such table"));
+        }
+    }
+
+    @Test
+    public void poolSizedLimitTest() throws Exception {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        DataSource lazy = DataSource.named("async-lazy");
+        Properties properties = TestProperties.forDatabase("async-lazy");
+        properties.setProperty("hibernate.connection.pool_size", "3");
+        factory.register(lazy, properties, Initialization.LAZY);
+        try {
+            assertEquals(3, mostRunning(factory, lazy, 12));
+
+            properties.setProperty("hibernate.connection.pool_size", "5");
+            assertTrue(factory.reload(lazy, properties).get(10, TimeUnit.SECONDS));
+            assertEquals(5, mostRunning(factory, lazy, 15));
+        } finally {
+            factory.unregister(lazy);
+        }
+    }
+
+    @Test
+    public void lazyBuildTest() throws Exception {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        DataSource lazy = DataSource.named("async-unbuilt");
+        Executor previous = factory.getAsyncExecutor();
+        ConcurrentLinkedQueue<Runnable> held = new ConcurrentLinkedQueue<>();
+        factory.register(lazy, TestProperties.forDatabase("async-unbuilt"), Initialization.LAZY);
+        factory.setAsyncExecutor(held::add);
+        try {
+            CompletableFuture<Boolean> future = factory.runAsync(lazy, () -> true);
+            assertFalse(factory.getPoolMetrics(lazy).isPresent());
+
+            held.poll().run();
+            assertTrue(future.get(5, TimeUnit.SECONDS));
+            assertTrue(factory.getPoolMetrics(lazy).isPresent());
+        } finally {
+            factory.setAsyncExecutor(previous);
+            factory.unregister(lazy);
+        }
+    }
+
+    @Test
+    public void rejectedTest() throws Exception {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        Executor previous = factory.getAsyncExecutor();
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        AtomicInteger executed = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        factory.setAsyncExecutor(task -> {
+            if (executed.getAndIncrement() > 0)
+                throw new RejectedExecutionException("shut down");
+            single.execute(task);
+        });
+        factory.setAsyncConcurrency(DataSource.DEFAULT, 1);
+        try {
+            CompletableFuture<Boolean> first = factory.runAsync(DataSource.DEFAULT, () -> {
+                try {
+                    return release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            });
+            CompletableFuture<Boolean> queued = factory.runAsync(DataSource.DEFAULT, () -> true);
+            release.countDown();
+            assertTrue(first.get(5, TimeUnit.SECONDS));
+            try {
+                queued.get(5, TimeUnit.SECONDS);
+                fail();
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+
+            assertTrue(factory.runAsync(DataSource.DEFAULT, () -> true).isCompletedExceptionally());
+        } finally {
+            factory.setAsyncExecutor(previous);
+            factory.setAsyncConcurrency(DataSource.DEFAULT, HibernateSessionFactory.DEFAULT_ASYNC_CONCURRENCY);
+            single.shutdown();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.akmade.hibernate.test;
+
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.Id;
+
+@Entity
+public class Boat {
+    @Id
+    @GeneratedValue
+    private Long id;
+    private String name;
+    private int length;
+
+    public Boat() {
+    }
+
+    public Boat(String name, int length) {
+        this.name = name;
+        this.length = length;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public void setLength(int length) {
+        this.length = length;
+    }
+}
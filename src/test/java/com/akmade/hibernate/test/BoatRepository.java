@@ -0,0 +1,46 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.BaseRepository;
+import com.akmade.hibernate.Keyset;
+import com.akmade.hibernate.Qry;
+import com.akmade.util.PagedServicePackage;
+import org.hibernate.criterion.Restrictions;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+public class BoatRepository extends BaseRepository {
+
+    public static Qry<Boat> save(Boat boat) {
+        return saveOrUpdate(boat);
+    }
+
+    public static Qry<Boat> find(Long id) {
+        return session -> Optional.ofNullable(session.get(Boat.class, id));
+    }
+
+    public static Qry<Long> countNamed(String prefix) {
+        return session -> Optional.of(session
+                .createQuery("select count(b) from Boat b where b.name like :prefix", Long.class)
+                .setParameter("prefix", prefix + "%")
+                .getSingleResult());
+    }
+
+    public static Qry<Integer> deleteNamed(String prefix) {
+        return deleteWhere(Boat.class, (cb, root) -> cb.like(root.get("name"), prefix + "%"));
+    }
+
+    public static Qry<Integer> deleteAll(Collection<Long> ids) {
+        return deleteByIds(Boat.class, ids);
+    }
+
+    public static Qry<Integer> resize(Collection<Long> ids, int length) {
+        return updateByIds(Boat.class, ids, (cb, update, root) -> update.set(root.get("length"), length));
+    }
+
+    public static Function<String, Qry<PagedServicePackage<Boat>>> pageNamed(String prefix, int pageSize) {
+        return preparePagedQry(session -> session.createCriteria(Boat.class).add(Restrictions.like("name", prefix + "%")),
+                Keyset.ofLong("id", Boat::getId), pageSize);
+    }
+}
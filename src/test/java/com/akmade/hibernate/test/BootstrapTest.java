@@ -0,0 +1,76 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.Warmup;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BootstrapTest {
+    private static final DataSource FIRST = DataSource.named("bootstrap-first");
+    private static final DataSource SECOND = DataSource.named("bootstrap-second");
+
+    private final HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+
+    @After
+    public void unregister() {
+        factory.unregister(FIRST);
+        factory.unregister(SECOND);
+    }
+
+    @Test
+    public void lazyTest() {
+        factory.register(FIRST, TestProperties.forDatabase("bootstrap-first"), Initialization.LAZY);
+        assertFalse(factory.getPoolMetrics(FIRST).isPresent());
+        BoatRepository.countNamed("Lazy").run(FIRST);
+        assertTrue(factory.getPoolMetrics(FIRST).isPresent());
+    }
+
+    @Test
+    public void eagerTest() {
+        factory.register(FIRST, TestProperties.forDatabase("bootstrap-first"), Initialization.EAGER);
+        assertTrue(factory.getPoolMetrics(FIRST).isPresent());
+    }
+
+    @Test
+    public void readinessTest() throws Exception {
+        AtomicInteger warmed = new AtomicInteger();
+        Qry<Integer> warmupQuery = session -> Optional.of(warmed.incrementAndGet());
+        factory.register(FIRST, TestProperties.forDatabase("bootstrap-first"), Initialization.LAZY);
+        factory.register(SECOND, TestProperties.forDatabase("bootstrap-second"), Initialization.LAZY);
+        factory.setWarmup(FIRST, Warmup.of(2, warmupQuery));
+        factory.setWarmup(SECOND, Warmup.of(1, warmupQuery));
+
+        CompletableFuture<Void> ready = factory.bootstrap();
+        assertSame(ready, factory.readiness());
+        ready.get(30, TimeUnit.SECONDS);
+        assertTrue(factory.getPoolMetrics(FIRST).isPresent());
+        assertTrue(factory.getPoolMetrics(SECOND).isPresent());
+        assertEquals(2, warmed.get());
+        assertEquals(0, factory.getPoolMetrics(FIRST).get().getActive());
+    }
+
+    @Test
+    public void failedBootstrapTest() throws Exception {
+        Properties broken = TestProperties.forDatabase("bootstrap-first");
+        broken.setProperty("hibernate.connection.driver_class", "no.such.Driver");
+        factory.register(FIRST, broken, Initialization.LAZY);
+        try {
+            factory.bootstrap().get(30, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(factory.readiness().isCompletedExceptionally());
+        }
+    }
+}
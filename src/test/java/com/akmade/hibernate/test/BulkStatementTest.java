@@ -0,0 +1,69 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.BulkWrite;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BulkStatementTest {
+
+    private static List<Boat> fleet(String prefix, int size) {
+        List<Boat> boats = IntStream.range(0, size).mapToObj(i -> new Boat(prefix + i, i)).collect(Collectors.toList());
+        BulkWrite.newBuilder(boats).build().run(DataSource.DEFAULT);
+        return boats;
+    }
+
+    @Test
+    public void deleteWhereTest() {
+        fleet("Purge-", 30);
+        assertEquals(Optional.of(30), BoatRepository.deleteNamed("Purge-").run(DataSource.DEFAULT));
+        assertEquals(Optional.of(0L), BoatRepository.countNamed("Purge-").run(DataSource.DEFAULT));
+    }
+
+    @Test
+    public void byIdsTest() {
+        List<Long> ids = fleet("Chunked-", 2500).stream().map(Boat::getId).collect(Collectors.toList());
+        Long first = ids.get(0);
+
+        Qry<Integer> resized = session -> {
+            Boat loaded = session.get(Boat.class, first);
+            Boat other = session.get(Boat.class, ids.get(1));
+            assertEquals(Optional.of(1), BoatRepository.resize(List.of(ids.get(1)), 98).execute(session));
+            assertTrue(session.contains(loaded));
+            assertFalse(session.contains(other));
+            int updated = BoatRepository.resize(ids, 99).execute(session).get();
+            assertFalse(session.contains(loaded));
+            assertEquals(99, session.get(Boat.class, first).getLength());
+            return Optional.of(updated);
+        };
+        assertEquals(Optional.of(2500), resized.run(DataSource.DEFAULT));
+
+        assertEquals(Optional.of(2500), BoatRepository.deleteAll(ids).run(DataSource.DEFAULT));
+        assertFalse(BoatRepository.find(first).run(DataSource.DEFAULT).isPresent());
+    }
+
+    @Test
+    public void pendingChangesTest() {
+        List<Long> ids = fleet("Pending-", 3).stream().map(Boat::getId).collect(Collectors.toList());
+        Long renamed = ids.get(0);
+        Boat added = new Boat("Pending-new", 5);
+
+        Qry<Integer> resized = session -> {
+            session.get(Boat.class, renamed).setName("Renamed-0");
+            session.save(added);
+            return BoatRepository.resize(List.of(ids.get(1), ids.get(2), added.getId()), 42).execute(session);
+        };
+        assertEquals(Optional.of(3), resized.run(DataSource.DEFAULT));
+
+        assertEquals("Renamed-0", BoatRepository.find(renamed).run(DataSource.DEFAULT).get().getName());
+        assertEquals(0, BoatRepository.find(renamed).run(DataSource.DEFAULT).get().getLength());
+        assertEquals(42, BoatRepository.find(added.getId()).run(DataSource.DEFAULT).get().getLength());
+    }
+}
@@ -0,0 +1,61 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.BulkWrite;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.SessionScope;
+import org.hibernate.BaseSessionEventListener;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class BulkWriteTest {
+
+    @Test
+    public void bulkWriteTest() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        BulkWrite.Result result = BulkWrite
+                .newBuilder(IntStream.range(0, 120).mapToObj(i -> new Boat("Bulk-" + i, i)).onClose(() -> closed.set(true)))
+                .batchSize(50)
+                .build()
+                .run(DataSource.DEFAULT);
+
+        assertEquals(120, result.getWritten());
+        assertTrue(result.getPerSecond() > 0);
+        assertTrue(closed.get());
+
+        Qry<Long> count = session -> Optional.of(session
+                .createQuery("select count(b) from Boat b where b.name like 'Bulk-%'", Long.class)
+                .getSingleResult());
+        assertEquals(Optional.of(120L), count.run(DataSource.DEFAULT));
+    }
+
+    @Test
+    public void scopedBatchTest() {
+        AtomicInteger batches = new AtomicInteger();
+        BulkWrite.Result result = SessionScope.supply(DataSource.DEFAULT, () -> {
+            SessionScope.currentSession(DataSource.DEFAULT).get().addEventListeners(new BaseSessionEventListener() {
+                @Override
+                public void jdbcExecuteBatchStart() {
+                    batches.incrementAndGet();
+                }
+            });
+            BulkWrite.Result written = BulkWrite
+                    .newBuilder(IntStream.range(0, 120).mapToObj(i -> new Boat("Scoped-" + i, i)))
+                    .batchSize(50)
+                    .build()
+                    .run(DataSource.DEFAULT);
+            assertEquals(Optional.of(0L), SessionScope.detach(() -> BoatRepository.countNamed("Scoped-").run(DataSource.DEFAULT)).get());
+            return written;
+        });
+
+        assertEquals(120, result.getWritten());
+        assertEquals(3, batches.get());
+        assertEquals(Optional.of(120L), BoatRepository.countNamed("Scoped-").run(DataSource.DEFAULT));
+    }
+}
@@ -0,0 +1,38 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.PoolMetrics;
+import org.hibernate.Session;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ConnectionPoolTest {
+
+    @Test
+    public void poolMetricsTest() {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        assertNotNull(factory.getSessionFactory(DataSource.DEFAULT));
+
+        AtomicReference<PoolMetrics> during = new AtomicReference<>();
+        try (Session session = factory.createSession(DataSource.DEFAULT)) {
+            session.beginTransaction();
+            session.save(new Boat("Osprey", 32));
+            session.doWork(connection -> during.set(factory.getPoolMetrics(DataSource.DEFAULT).get()));
+            session.getTransaction().commit();
+        }
+        assertTrue(during.get().getActive() >= 1);
+        assertEquals(4, during.get().getMaximum());
+
+        PoolMetrics after = factory.getPoolMetrics(DataSource.DEFAULT).get();
+        assertEquals(0, after.getActive());
+        assertEquals(0, after.getWaiting());
+        assertTrue(after.getIdle() >= 1);
+        assertTrue(after.getAcquisition().getCount() >= 1);
+        assertTrue(after.getAcquisition().getPercentile(99) <= after.getAcquisition().getMax());
+        assertEquals(0, after.getTimeouts());
+    }
+}
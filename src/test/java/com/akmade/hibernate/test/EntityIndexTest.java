@@ -0,0 +1,134 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.EntityIndexProcessor;
+import com.akmade.hibernate.HibernateSessionFactoryConfig;
+import com.akmade.hibernate.test.fleet.Dinghy;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class EntityIndexTest {
+
+    private static JavaFileObject source(String className, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    @Test
+    public void incrementalIndexTest() throws IOException {
+        Path output = Files.createTempDirectory("entity-index");
+        Path index = output.resolve(EntityIndexProcessor.INDEX_RESOURCE);
+        Files.createDirectories(index.getParent());
+        Files.write(index, Arrays.asList(Boat.class.getName(), "com.akmade.removed.Yawl"), StandardCharsets.UTF_8);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null,
+                Arrays.asList("-d", output.toString(), "-classpath", System.getProperty("java.class.path")),
+                null,
+                Collections.singletonList(source("com.akmade.index.Sloop",
+                        "package com.akmade.index; @javax.persistence.Entity public class Sloop { @javax.persistence.Id Long id; }")));
+        task.setProcessors(Collections.singletonList(new EntityIndexProcessor()));
+        assertTrue(task.call());
+
+        assertEquals(Arrays.asList(Boat.class.getName(), "com.akmade.index.Sloop"), Files.readAllLines(index, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return a class loader whose only entity index lists the Boat entity
+     */
+    private static ClassLoader boatIndexOnly(ClassLoader parent) throws IOException {
+        Path index = Files.createTempFile("hibernate-entities", "");
+        Files.write(index, Collections.singletonList(Boat.class.getName()), StandardCharsets.UTF_8);
+        List<URL> indexes = Collections.singletonList(index.toUri().toURL());
+        return new ClassLoader(parent) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                return EntityIndexProcessor.INDEX_RESOURCE.equals(name)
+                        ? Collections.enumeration(indexes)
+                        : super.getResources(name);
+            }
+        };
+    }
+
+    @Test
+    public void unindexedPackageTest() throws IOException {
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        ClassLoader dependencyIndexOnly = boatIndexOnly(previous);
+
+        Properties properties = TestProperties.forDatabase("indexed");
+        properties.setProperty(HibernateSessionFactoryConfig.ENTITY_PACKAGES, Boat.class.getPackage().getName() + "," + Dinghy.class.getPackage().getName());
+        HibernateSessionFactoryConfig config = new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), properties);
+        Thread.currentThread().setContextClassLoader(dependencyIndexOnly);
+        try {
+            SessionFactory sessionFactory = config.getOrBuildSessionFactory();
+            assertNotNull(sessionFactory.getMetamodel().entity(Boat.class));
+            assertNotNull(sessionFactory.getMetamodel().entity(Dinghy.class));
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+            config.closeSessionFactory();
+        }
+    }
+
+    @Test
+    public void defaultPackageTest() throws IOException {
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        Properties properties = TestProperties.forDatabase("unlisted");
+        properties.remove(HibernateSessionFactoryConfig.ENTITY_PACKAGES);
+        HibernateSessionFactoryConfig config = new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), properties);
+        Thread.currentThread().setContextClassLoader(boatIndexOnly(previous));
+        try {
+            SessionFactory sessionFactory = config.getOrBuildSessionFactory();
+            assertTrue(sessionFactory.getMetamodel().getEntities().isEmpty());
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+            config.closeSessionFactory();
+        }
+    }
+
+    @Test
+    public void compiledIndexTest() throws IOException, URISyntaxException {
+        List<String> indexed = new ArrayList<>();
+        Enumeration<URL> indexes = getClass().getClassLoader().getResources(EntityIndexProcessor.INDEX_RESOURCE);
+        while (indexes.hasMoreElements())
+            indexed.addAll(Files.readAllLines(Paths.get(indexes.nextElement().toURI()), StandardCharsets.UTF_8));
+        assertTrue(indexed.contains(Boat.class.getName()));
+    }
+
+    @Test
+    public void indexedEntitiesTest() {
+        Properties properties = TestProperties.forDatabase("entity-index");
+        properties.setProperty(HibernateSessionFactoryConfig.ENTITY_PACKAGES, Boat.class.getPackage().getName());
+        HibernateSessionFactoryConfig config = new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), properties);
+        config.rebuildSessionFactory();
+        SessionFactory sessionFactory = config.getSessionFactory();
+        try {
+            assertNotNull(sessionFactory.getMetamodel().entity(Boat.class));
+        } finally {
+            sessionFactory.close();
+        }
+    }
+}
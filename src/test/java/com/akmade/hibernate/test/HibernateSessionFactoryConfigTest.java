@@ -0,0 +1,125 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.hibernate.HibernateSessionFactoryConfig;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class HibernateSessionFactoryConfigTest {
+    private static final int THREADS = 8;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private HibernateSessionFactoryConfig config;
+
+    private static HibernateSessionFactoryConfig configFor(Properties properties) {
+        return new HibernateSessionFactoryConfig(null, new ThreadLocal<>(), properties);
+    }
+
+    @After
+    public void close() {
+        executor.shutdownNow();
+        if (config != null)
+            config.closeSessionFactory();
+    }
+
+    @Test
+    public void singleFlightTest() throws Exception {
+        config = configFor(TestProperties.forDatabase("config"));
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<SessionFactory>> builds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++)
+            builds.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return config.getOrBuildSessionFactory();
+            }, executor));
+        start.countDown();
+
+        Set<SessionFactory> built = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (CompletableFuture<SessionFactory> build : builds)
+            built.add(build.get(30, TimeUnit.SECONDS));
+        assertEquals(1, built.size());
+        assertSame(config.getSessionFactory(), built.iterator().next());
+    }
+
+    @Test
+    public void drainTest() throws Exception {
+        config = configFor(TestProperties.forDatabase("config"));
+        List<Session> sessions = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++)
+            sessions.add(config.openSession());
+        SessionFactory old = config.getSessionFactory();
+
+        config.rebuildSessionFactory();
+        assertNotSame(old, config.getSessionFactory());
+        assertFalse(old.isClosed());
+
+        CountDownLatch start = new CountDownLatch(1);
+        CompletableFuture<?>[] closes = sessions.stream()
+                .map(session -> CompletableFuture.runAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    session.close();
+                }, executor))
+                .toArray(CompletableFuture<?>[]::new);
+        start.countDown();
+        CompletableFuture.allOf(closes).get(30, TimeUnit.SECONDS);
+        assertTrue(old.isClosed());
+        assertFalse(config.getSessionFactory().isClosed());
+    }
+
+    @Test
+    public void closedTest() {
+        config = configFor(TestProperties.forDatabase("config"));
+        config.openSession().close();
+        config.closeSessionFactory();
+        assertNull(config.getSessionFactory());
+        try {
+            config.openSession();
+            fail();
+        } catch (UnrecoverableException e) {
+            assertNull(config.getSessionFactory());
+        }
+        try {
+            config.getOrBuildSessionFactory();
+            fail();
+        } catch (UnrecoverableException e) {
+            assertNull(config.getSessionFactory());
+        }
+    }
+
+    @Test
+    public void failedBuildTest() {
+        Properties properties = TestProperties.forDatabase("config");
+        properties.setProperty("hibernate.connection.driver_class", "no.such.Driver");
+        config = configFor(properties);
+        try {
+            config.openSession();
+            fail();
+        } catch (UnrecoverableException e) {
+            assertTrue(e.getMessage().contains("Could not build"));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.hibernate.Qry;
+import com.akmade.util.PagedServicePackage;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class PagedQryTest {
+    private static SessionFactory sessionFactory;
+
+    @BeforeClass
+    public static void buildSessionFactory() {
+        sessionFactory = new Configuration()
+                .setProperty("hibernate.connection.url", "jdbc:h2:mem:paged;DB_CLOSE_DELAY=-1")
+                .addAnnotatedClass(Boat.class)
+                .buildSessionFactory();
+    }
+
+    @AfterClass
+    public static void closeSessionFactory() {
+        sessionFactory.close();
+    }
+
+    private static List<Long> fleet(String prefix, int size) {
+        List<Boat> boats = IntStream.range(0, size).mapToObj(i -> new Boat(prefix + i, i)).collect(Collectors.toList());
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            boats.forEach(session::save);
+            transaction.commit();
+        }
+        return boats.stream().map(Boat::getId).sorted().collect(Collectors.toList());
+    }
+
+    private static PagedServicePackage<Boat> page(Function<String, Qry<PagedServicePackage<Boat>>> pages, String cursor) {
+        try (Session session = sessionFactory.openSession()) {
+            return pages.apply(cursor).execute(session).get();
+        }
+    }
+
+    private static List<Long> ids(PagedServicePackage<Boat> page) {
+        return page.items().stream().map(Boat::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void pagesTest() {
+        List<Long> ids = fleet("Paged-", 7);
+        Function<String, Qry<PagedServicePackage<Boat>>> pages = BoatRepository.pageNamed("Paged-", 3);
+
+        PagedServicePackage<Boat> first = page(pages, null);
+        assertEquals(ids.subList(0, 3), ids(first));
+        assertTrue(first.hasMore());
+
+        PagedServicePackage<Boat> middle = page(pages, first.cursor().get());
+        assertEquals(ids.subList(3, 6), ids(middle));
+        assertTrue(middle.hasMore());
+
+        PagedServicePackage<Boat> last = page(pages, middle.cursor().get());
+        assertEquals(ids.subList(6, 7), ids(last));
+        assertFalse(last.hasMore());
+        assertFalse(last.cursor().isPresent());
+        assertTrue(last.messages().isEmpty());
+    }
+
+    @Test
+    public void boundaryTest() {
+        List<Long> exact = fleet("Exact-", 3);
+        PagedServicePackage<Boat> only = page(BoatRepository.pageNamed("Exact-", 3), null);
+        assertEquals(exact, ids(only));
+        assertFalse(only.cursor().isPresent());
+
+        List<Long> oneMore = fleet("OneMore-", 4);
+        Function<String, Qry<PagedServicePackage<Boat>>> pages = BoatRepository.pageNamed("OneMore-", 3);
+        PagedServicePackage<Boat> first = page(pages, null);
+        assertEquals(oneMore.subList(0, 3), ids(first));
+        assertTrue(first.cursor().isPresent());
+        PagedServicePackage<Boat> second = page(pages, first.cursor().get());
+        assertEquals(oneMore.subList(3, 4), ids(second));
+        assertFalse(second.cursor().isPresent());
+
+        List<Long> all = new ArrayList<>(ids(first));
+        all.addAll(ids(second));
+        assertEquals(oneMore, all);
+    }
+
+    @Test
+    public void unboundedPageTest() {
+        List<Long> ids = fleet("Unbounded-", 4);
+        PagedServicePackage<Boat> only = page(BoatRepository.pageNamed("Unbounded-", Integer.MAX_VALUE), null);
+        assertEquals(ids, ids(only));
+        assertFalse(only.hasMore());
+    }
+
+    @Test
+    public void invalidCursorTest() {
+        Function<String, Qry<PagedServicePackage<Boat>>> pages = BoatRepository.pageNamed("Paged-", 3);
+        for (String cursor : new String[] {"not base64!", "YWJj"}) {
+            PagedServicePackage<Boat> page = page(pages, cursor);
+            assertTrue(page.items().isEmpty());
+            assertFalse(page.cursor().isPresent());
+            Msg error = page.messages().iterator().next();
+            assertEquals(Msg.Severity.ERROR, error.getSeverity());
+            assertTrue(error.getMessage().contains(cursor));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.QryBatch;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+public class QryBatchTest {
+
+    private static Qry<Boat> save(Boat boat) {
+        return session -> {
+            session.save(boat);
+            return Optional.of(boat);
+        };
+    }
+
+    private static Qry<Boat> find(Long id) {
+        return session -> Optional.ofNullable(session.get(Boat.class, id));
+    }
+
+    @Test
+    public void oneSessionTest() {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        Qry<Boat> tern = save(new Boat("Tern", 24));
+        Long id = QryBatch.of(tern, save(new Boat("Gull", 28)))
+                .run(DataSource.DEFAULT).get()
+                .get(tern).get().getId();
+
+        long checkouts = factory.getPoolMetrics(DataSource.DEFAULT).get().getAcquisition().getCount();
+        Qry<Boat> first = find(id);
+        Qry<Boat> second = find(id);
+        Qry<Boat> missing = find(-1L);
+        QryBatch.Results results = QryBatch.of(first, second).and(missing).run(DataSource.DEFAULT).get();
+
+        assertEquals(3, results.size());
+        assertEquals("Tern", results.get(first).get().getName());
+        assertSame(results.get(first).get(), results.get(second).get());
+        assertFalse(results.get(missing).isPresent());
+        assertEquals(checkouts + 1, factory.getPoolMetrics(DataSource.DEFAULT).get().getAcquisition().getCount());
+    }
+
+    @Test
+    public void readOnlyTest() {
+        Long id = save(new Boat("Heron", 30)).run(DataSource.DEFAULT).get().getId();
+        Qry<Boat> read = find(id).readOnly();
+        QryBatch.Results results = QryBatch.of(read).run(DataSource.DEFAULT).get();
+        Boat boat = results.get(read).get();
+        assertEquals("Heron", boat.getName());
+    }
+}
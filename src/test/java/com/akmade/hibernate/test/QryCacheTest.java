@@ -0,0 +1,134 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.QryCache;
+import com.akmade.hibernate.ReadOnlyQry;
+import com.akmade.hibernate.SessionScope;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class QryCacheTest {
+
+    @Test
+    public void writeInvalidationTest() {
+        QryCache cache = QryCache.newBuilder().build();
+        Boat boat = BoatRepository.save(new Boat("Cached", 20)).run(DataSource.DEFAULT).get();
+        AtomicInteger loads = new AtomicInteger();
+        Qry<Integer> length = cache.cached(Boat.class, "length:" + boat.getId(), session -> {
+            loads.incrementAndGet();
+            return BoatRepository.find(boat.getId()).execute(session).map(Boat::getLength);
+        });
+
+        assertEquals(Optional.of(20), length.run(DataSource.DEFAULT));
+        assertEquals(Optional.of(20), length.run(DataSource.DEFAULT));
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+
+        boat.setLength(21);
+        BoatRepository.save(boat).run(DataSource.DEFAULT);
+        assertEquals(0, cache.size());
+        assertEquals(Optional.of(21), length.run(DataSource.DEFAULT));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void transactionInvalidationTest() {
+        QryCache cache = QryCache.newBuilder().build();
+        Qry<Integer> cached = cache.cached(Boat.class, "transaction", session -> Optional.of(1));
+        cached.execute(null);
+
+        SessionScope.run(DataSource.DEFAULT, () -> {
+            for (int i = 0; i < 5; i++)
+                BoatRepository.save(new Boat("Invalidated-" + i, i)).run(DataSource.DEFAULT);
+            assertEquals(1, cache.size());
+        });
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void evictionTest() {
+        AtomicLong ticker = new AtomicLong();
+        QryCache cache = QryCache.newBuilder()
+                .maximumSize(2)
+                .expireAfterWrite(50, TimeUnit.MILLISECONDS)
+                .ticker(ticker::get)
+                .build();
+        AtomicInteger loads = new AtomicInteger();
+        Qry<Integer> first = cache.cached(Boat.class, 1, session -> Optional.of(loads.incrementAndGet()));
+        Qry<Integer> second = cache.cached(Boat.class, 2, session -> Optional.of(loads.incrementAndGet()));
+        Qry<Integer> third = cache.cached(Boat.class, 3, session -> Optional.of(loads.incrementAndGet()));
+
+        first.execute(null);
+        second.execute(null);
+        first.execute(null);
+        third.execute(null);
+        assertEquals(2, cache.size());
+        assertEquals(3, loads.get());
+        first.execute(null);
+        assertEquals(3, loads.get());
+        second.execute(null);
+        assertEquals(4, loads.get());
+
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(49));
+        first.execute(null);
+        assertEquals(4, loads.get());
+        ticker.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        first.execute(null);
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    public void singleFlightTest() throws Exception {
+        QryCache cache = QryCache.newBuilder().build();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Qry<Integer> slow = cache.cached(Boat.class, "slow", session -> {
+            loads.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(42);
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Integer>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                results.add(executor.submit(() -> slow.execute(null)));
+            while (cache.getHits() + cache.getMisses() < 8)
+                Thread.sleep(5);
+            release.countDown();
+            for (Future<Optional<Integer>> result : results)
+                assertEquals(Optional.of(42), result.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void readOnlyTest() {
+        QryCache cache = QryCache.newBuilder().build();
+        Qry<Boolean> writable = cache.cached(Boat.class, "writable", session -> Optional.of(session.isDefaultReadOnly()));
+        assertFalse(writable instanceof ReadOnlyQry);
+        assertEquals(Optional.of(false), writable.run(DataSource.DEFAULT));
+
+        ReadOnlyQry<Boolean> readOnly = cache.cachedReadOnly(Boat.class, "readOnly", session -> Optional.of(session.isDefaultReadOnly()));
+        assertEquals(Optional.of(true), readOnly.run(DataSource.DEFAULT));
+    }
+}
@@ -0,0 +1,125 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.QryFanOut;
+import com.akmade.hibernate.SessionScope;
+import org.hibernate.Session;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class QryFanOutTest {
+
+    private static <T> Qry<T> slow(long millis, T result) {
+        return session -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Optional.of(result);
+        };
+    }
+
+    @Test
+    public void fanOutTest() {
+        Boat boat = BoatRepository.save(new Boat("Shearwater", 34)).run(DataSource.DEFAULT).get();
+        Qry<Boat> find = BoatRepository.find(boat.getId());
+        Qry<Long> count = BoatRepository.countNamed("Shearwater");
+        Qry<Integer> failing = session -> {
+            throw new IllegalStateException("lost connection");
+        };
+
+        QryFanOut.Results results = QryFanOut.newBuilder()
+                .add("find", find)
+                .add("count", count)
+                .add("failing", failing)
+                .build()
+                .run(DataSource.DEFAULT);
+
+        assertEquals("Shearwater", results.get(find).get().getName());
+        assertEquals(Optional.of(1L), results.get(count));
+        assertFalse(results.get(failing).isPresent());
+        assertTrue(results.isFailed(failing));
+        assertTrue(results.hasFailures());
+        assertTrue(results.getElapsed(find, TimeUnit.NANOSECONDS) > 0);
+        assertEquals(4, results.messages().size());
+        assertTrue(results.messages().stream().anyMatch(msg ->
+                msg.getSeverity() == Msg.Severity.EXCEPTION && msg.getMessage().startsWith("failing failed")));
+    }
+
+    @Test
+    public void namedResultsTest() {
+        Qry<Integer> one = session -> Optional.of(1);
+        QryFanOut.Builder builder = QryFanOut.newBuilder().add("one", one);
+        try {
+            builder.add("again", one);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("already added"));
+        }
+
+        QryFanOut.Results results = builder.add("two", session -> Optional.of(2)).build().run(DataSource.DEFAULT);
+        assertEquals(Optional.of(1), results.get("one"));
+        assertEquals(Optional.of(2), results.get("two"));
+        assertFalse(results.isFailed("two"));
+        assertTrue(results.getElapsed("two", TimeUnit.NANOSECONDS) > 0);
+        try {
+            results.get("again");
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().contains("again"));
+        }
+    }
+
+    @Test
+    public void parallelAndTimeoutTest() {
+        Qry<Integer> first = slow(200, 1);
+        Qry<Integer> second = slow(200, 2);
+        Qry<Integer> stuck = slow(2000, 3);
+        long start = System.nanoTime();
+        QryFanOut.Results results = QryFanOut.newBuilder()
+                .add("first", first)
+                .add("second", second)
+                .add("stuck", stuck)
+                .timeout(500, TimeUnit.MILLISECONDS)
+                .build()
+                .run(DataSource.DEFAULT);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue("took " + elapsed + " ms", elapsed < 1500);
+        assertEquals(Optional.of(1), results.get(first));
+        assertEquals(Optional.of(2), results.get(second));
+        assertTrue(results.isFailed(stuck));
+        assertEquals(-1L, results.getElapsed(stuck, TimeUnit.MILLISECONDS));
+        assertTrue(results.toServicePackage().hasMessages());
+    }
+
+    @Test
+    public void scopedFanOutTest() throws Exception {
+        Qry<Session> first = session -> Optional.of(session);
+        Qry<Session> second = session -> Optional.of(session);
+        QryFanOut fanOut = QryFanOut.newBuilder()
+                .add("first", first)
+                .add("second", second)
+                .build();
+        Qry<QryFanOut.Results> nested = session -> Optional.of(fanOut.run(DataSource.DEFAULT));
+
+        CompletableFuture<Session[]> sessions = CompletableFuture.supplyAsync(() ->
+                SessionScope.supply(DataSource.DEFAULT, () -> {
+                    Session scoped = SessionScope.currentSession(DataSource.DEFAULT).get();
+                    QryFanOut.Results results = nested.run(DataSource.DEFAULT).get();
+                    return new Session[] {scoped, results.get(first).get(), results.get(second).get()};
+                }));
+        Session[] seen = sessions.get(10, TimeUnit.SECONDS);
+        assertNotSame(seen[0], seen[1]);
+        assertNotSame(seen[0], seen[2]);
+        assertNotSame(seen[1], seen[2]);
+    }
+}
@@ -0,0 +1,109 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.ReadOnlyQry;
+import org.hibernate.FlushMode;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class QryTest {
+
+    private static <T> Qry<T> counted(AtomicInteger runs, T result) {
+        return session -> {
+            runs.incrementAndGet();
+            return Optional.ofNullable(result);
+        };
+    }
+
+    @Test
+    public void mapAndFlatMapTest() {
+        AtomicInteger runs = new AtomicInteger();
+        Qry<Integer> length = counted(runs, "Osprey").map(String::length);
+        assertEquals(Optional.of(6), length.execute(null));
+
+        Qry<Integer> doubled = length.flatMap(n -> counted(runs, n * 2));
+        assertEquals(Optional.of(12), doubled.execute(null));
+        assertEquals(3, runs.get());
+
+        Qry<Integer> empty = counted(runs, (String) null).flatMap(s -> counted(runs, 1));
+        assertFalse(empty.execute(null).isPresent());
+        assertEquals(4, runs.get());
+
+        ReadOnlyQry<Integer> readOnly = counted(runs, "Tern").readOnly().map(String::length);
+        assertEquals(Optional.of(4), readOnly.execute(null));
+    }
+
+    @Test
+    public void zipAndThenTest() {
+        AtomicInteger runs = new AtomicInteger();
+        Qry<String> zipped = counted(runs, "Tern").zip(counted(runs, 24), (name, length) -> name + length);
+        assertEquals(Optional.of("Tern24"), zipped.execute(null));
+        assertEquals(2, runs.get());
+
+        assertFalse(counted(runs, null).zip(counted(runs, 24), (a, b) -> b).execute(null).isPresent());
+        assertEquals(3, runs.get());
+
+        assertEquals(Optional.of(24), counted(runs, "Tern").andThen(counted(runs, 24)).execute(null));
+        assertFalse(counted(runs, null).andThen(counted(runs, 24)).execute(null).isPresent());
+        assertEquals(6, runs.get());
+    }
+
+    @Test
+    public void sequenceTest() {
+        AtomicInteger runs = new AtomicInteger();
+        Qry<List<Integer>> all = Qry.sequence(Arrays.asList(counted(runs, 1), counted(runs, 2), counted(runs, 3)));
+        assertEquals(Optional.of(Arrays.asList(1, 2, 3)), all.execute(null));
+        assertEquals(3, runs.get());
+
+        Qry<List<Integer>> stopped = Qry.sequence(Arrays.asList(counted(runs, 1), counted(runs, null), counted(runs, 3)));
+        assertFalse(stopped.execute(null).isPresent());
+        assertEquals(5, runs.get());
+
+        assertEquals(Optional.of(Collections.emptyList()), Qry.<Integer>sequence(Collections.emptyList()).execute(null));
+    }
+
+    @Test
+    public void readOnlyNotFlushedTest() {
+        Boat boat = BoatRepository.save(new Boat("Skua", 21)).run(DataSource.DEFAULT).get();
+        Qry<Boat> lengthen = BoatRepository.find(boat.getId()).map(loaded -> {
+            loaded.setLength(loaded.getLength() + 1);
+            return loaded;
+        });
+
+        assertEquals(22, lengthen.readOnly().run(DataSource.DEFAULT).get().getLength());
+        assertEquals(21, BoatRepository.find(boat.getId()).run(DataSource.DEFAULT).get().getLength());
+
+        lengthen.run(DataSource.DEFAULT);
+        assertEquals(22, BoatRepository.find(boat.getId()).run(DataSource.DEFAULT).get().getLength());
+    }
+
+    @Test
+    public void composedReadOnlyTest() {
+        Boat boat = BoatRepository.save(new Boat("Tern", 30)).run(DataSource.DEFAULT).get();
+        ReadOnlyQry<Boat> find = BoatRepository.find(boat.getId()).readOnly();
+        Qry<Boat> lengthen = find.andThen(find).map(loaded -> {
+            loaded.setLength(loaded.getLength() + 1);
+            return loaded;
+        });
+
+        assertFalse(lengthen instanceof ReadOnlyQry);
+        assertEquals(31, lengthen.readOnly().run(DataSource.DEFAULT).get().getLength());
+        assertEquals(30, BoatRepository.find(boat.getId()).run(DataSource.DEFAULT).get().getLength());
+    }
+
+    @Test
+    public void readOnlySessionTest() {
+        Qry<Boolean> readOnly = session -> Optional.of(session.isDefaultReadOnly()
+                && session.getHibernateFlushMode() == FlushMode.MANUAL);
+        assertTrue(readOnly.readOnly().run(DataSource.DEFAULT).get());
+        assertFalse(readOnly.run(DataSource.DEFAULT).get());
+    }
+}
@@ -0,0 +1,69 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RegistryTest {
+    private static final DataSource SHARD = DataSource.named("shard");
+
+    private final HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+
+    @After
+    public void unregister() {
+        factory.unregister(SHARD);
+    }
+
+    @Test
+    public void registerTest() {
+        assertFalse(factory.isRegistered(SHARD));
+        factory.register(SHARD, TestProperties.forDatabase("shard"), Initialization.EAGER);
+        assertTrue(factory.isRegistered(SHARD));
+        assertTrue(factory.getDataSources().contains(SHARD));
+        assertEquals(SHARD, DataSource.named("shard"));
+        assertTrue(BoatRepository.save(new Boat("Shard", 12)).run(SHARD).isPresent());
+    }
+
+    @Test
+    public void unregisterTest() {
+        factory.register(SHARD, TestProperties.forDatabase("shard"), Initialization.EAGER);
+        SessionFactory sessionFactory = factory.getSessionFactory(SHARD);
+        factory.unregister(SHARD);
+        assertFalse(factory.isRegistered(SHARD));
+        assertTrue(sessionFactory.isClosed());
+        try {
+            factory.createSession(SHARD);
+            fail();
+        } catch (UnrecoverableException e) {
+            assertTrue(e.getMessage().contains("shard"));
+        }
+    }
+
+    @Test
+    public void duplicateTest() {
+        factory.register(SHARD, TestProperties.forDatabase("shard"), Initialization.EAGER);
+        SessionFactory first = factory.getSessionFactory(SHARD);
+        factory.register(SHARD, TestProperties.forDatabase("shard"), Initialization.EAGER);
+        SessionFactory second = factory.getSessionFactory(SHARD);
+        assertNotSame(first, second);
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+    }
+
+    @Test
+    public void missingFileTest() {
+        try {
+            factory.register(SHARD, "typo.properties", Initialization.LAZY);
+            fail();
+        } catch (UnrecoverableException e) {
+            assertTrue(e.getMessage().contains("typo.properties"));
+        }
+        assertFalse(factory.isRegistered(SHARD));
+    }
+}
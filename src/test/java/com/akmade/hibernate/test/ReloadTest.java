@@ -0,0 +1,131 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import com.akmade.hibernate.HibernateSessionFactoryConfig;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class ReloadTest {
+    private static final DataSource RELOADED = DataSource.named("reloaded");
+
+    private final HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline)
+            Thread.sleep(20);
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @After
+    public void unregister() {
+        if (factory.isRegistered(RELOADED))
+            factory.unregister(RELOADED);
+    }
+
+    @Test
+    public void reloadTest() throws Exception {
+        factory.register(RELOADED, TestProperties.forDatabase("reloaded"), Initialization.EAGER);
+        SessionFactory old = factory.getSessionFactory(RELOADED);
+        Boat boat = BoatRepository.save(new Boat("Tern", 17)).run(RELOADED).get();
+
+        Properties properties = TestProperties.forDatabase("reloaded");
+        properties.setProperty("hikari.poolName", "akmade-reloaded-2");
+        assertTrue(factory.reload(RELOADED, properties).get(10, TimeUnit.SECONDS));
+        assertNotSame(old, factory.getSessionFactory(RELOADED));
+        assertTrue(old.isClosed());
+        assertEquals("Tern", BoatRepository.find(boat.getId()).run(RELOADED).get().getName());
+    }
+
+    @Test
+    public void failedReloadTest() throws Exception {
+        factory.register(RELOADED, TestProperties.forDatabase("reloaded"), Initialization.EAGER);
+        SessionFactory old = factory.getSessionFactory(RELOADED);
+
+        Properties broken = TestProperties.forDatabase("reloaded");
+        broken.setProperty("hibernate.connection.driver_class", "no.such.Driver");
+        assertFalse(factory.reload(RELOADED, broken).get(10, TimeUnit.SECONDS));
+        assertSame(old, factory.getSessionFactory(RELOADED));
+        assertFalse(old.isClosed());
+        assertTrue(BoatRepository.countNamed("Tern").run(RELOADED).isPresent());
+    }
+
+    @Test
+    public void drainTimeoutTest() throws Exception {
+        Properties properties = TestProperties.forDatabase("reloaded");
+        properties.setProperty(HibernateSessionFactoryConfig.DRAIN_TIMEOUT, "200");
+        factory.register(RELOADED, properties, Initialization.EAGER);
+        SessionFactory old = factory.getSessionFactory(RELOADED);
+        Session leaked = factory.createSession(RELOADED);
+
+        assertTrue(factory.reload(RELOADED, properties).get(10, TimeUnit.SECONDS));
+        await(old::isClosed);
+        assertNotSame(old, factory.getSessionFactory(RELOADED));
+        assertNotNull(leaked);
+    }
+
+    @Test
+    public void watchTest() throws Exception {
+        File classes = new File(getClass().getClassLoader().getResource("hibernate.properties").toURI()).getParentFile();
+        File file = new File(classes, "watched.properties");
+        try (OutputStream out = new FileOutputStream(file)) {
+            TestProperties.forDatabase("watched").store(out, null);
+        }
+        try {
+            factory.register(RELOADED, "watched.properties", Initialization.EAGER);
+            SessionFactory first = factory.getSessionFactory(RELOADED);
+            factory.watch(RELOADED, 1, TimeUnit.HOURS);
+            assertFalse(factory.checkPropertyFile(RELOADED).get(10, TimeUnit.SECONDS));
+
+            assertTrue(file.setLastModified(file.lastModified() + 10000));
+            assertTrue(factory.checkPropertyFile(RELOADED).get(10, TimeUnit.SECONDS));
+            assertNotSame(first, factory.getSessionFactory(RELOADED));
+            assertFalse(factory.checkPropertyFile(RELOADED).get(10, TimeUnit.SECONDS));
+            await(first::isClosed);
+
+            factory.unwatch(RELOADED);
+            try {
+                factory.checkPropertyFile(RELOADED);
+                fail();
+            } catch (UnrecoverableException e) {
+                assertTrue(e.getMessage().contains("not watched"));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void scheduledWatchTest() throws Exception {
+        File classes = new File(getClass().getClassLoader().getResource("hibernate.properties").toURI()).getParentFile();
+        File file = new File(classes, "scheduled.properties");
+        try (OutputStream out = new FileOutputStream(file)) {
+            TestProperties.forDatabase("scheduled").store(out, null);
+        }
+        try {
+            factory.register(RELOADED, "scheduled.properties", Initialization.EAGER);
+            SessionFactory first = factory.getSessionFactory(RELOADED);
+            factory.watch(RELOADED, 20, TimeUnit.MILLISECONDS);
+
+            assertTrue(file.setLastModified(file.lastModified() + 10000));
+            await(() -> factory.getSessionFactory(RELOADED) != first);
+        } finally {
+            factory.unwatch(RELOADED);
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.ReadOnlyQry;
+import com.akmade.hibernate.ReplicaSet;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class ReplicaSetTest {
+    private static final DataSource PRIMARY = DataSource.named("replicated");
+    private static final DataSource REPLICA_A = DataSource.named("replica-a");
+    private static final DataSource REPLICA_B = DataSource.named("replica-b");
+    private static final DataSource UNREACHABLE = DataSource.named("replica-unreachable");
+    private static final ReadOnlyQry<String> URL = session -> Optional.of(session.doReturningWork(c -> c.getMetaData().getURL()));
+
+    private static final HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+
+    @BeforeClass
+    public static void register() {
+        factory.register(PRIMARY, TestProperties.forDatabase("replicated"));
+        factory.register(REPLICA_A, TestProperties.forDatabase("replica-a"));
+        factory.register(REPLICA_B, TestProperties.forDatabase("replica-b"));
+        Properties unreachable = TestProperties.forDatabase("replica-unreachable");
+        unreachable.setProperty("hibernate.connection.url", "jdbc:h2:tcp://localhost:1/unreachable");
+        unreachable.setProperty("hibernate.hbm2ddl.auto", "none");
+        unreachable.setProperty("hikari.initializationFailTimeout", "-1");
+        unreachable.setProperty("hikari.connectionTimeout", "250");
+        factory.register(UNREACHABLE, unreachable);
+    }
+
+    @AfterClass
+    public static void unregister() {
+        Arrays.asList(PRIMARY, REPLICA_A, REPLICA_B, UNREACHABLE).forEach(factory::unregister);
+    }
+
+    @After
+    public void unregisterReplicas() {
+        factory.unregisterReplicas(PRIMARY);
+    }
+
+    private static String database(String url) {
+        return url.substring(url.lastIndexOf(':') + 1, url.indexOf(';') < 0 ? url.length() : url.indexOf(';'));
+    }
+
+    private static String read() {
+        return database(URL.run(PRIMARY).get());
+    }
+
+    @Test
+    public void roundRobinTest() {
+        factory.registerReplicas(PRIMARY, Arrays.asList(REPLICA_A, REPLICA_B), ReplicaSet.LoadBalancing.ROUND_ROBIN);
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++)
+            reads.add(read());
+        assertEquals(Arrays.asList("replica-a", "replica-b", "replica-a", "replica-b"), reads);
+        assertEquals("replicated", database(((Qry<String>) URL::execute).run(PRIMARY).get()));
+    }
+
+    @Test
+    public void leastInFlightTest() {
+        factory.registerReplicas(PRIMARY, Arrays.asList(REPLICA_A, REPLICA_B), ReplicaSet.LoadBalancing.LEAST_IN_FLIGHT);
+        ReplicaSet replicaSet = factory.getReplicaSet(PRIMARY);
+        Session held = factory.createReadSession(PRIMARY);
+        try {
+            int busy = replicaSet.getInFlight()[0] == 1 ? 0 : 1;
+            assertArrayEquals(busy == 0 ? new int[] {1, 0} : new int[] {0, 1}, replicaSet.getInFlight());
+            String idle = busy == 0 ? "replica-b" : "replica-a";
+            for (int i = 0; i < 3; i++)
+                assertEquals(idle, read());
+        } finally {
+            held.close();
+        }
+        assertArrayEquals(new int[] {0, 0}, replicaSet.getInFlight());
+    }
+
+    @Test
+    public void fallbackTest() {
+        factory.registerReplicas(PRIMARY, Collections.singletonList(UNREACHABLE), ReplicaSet.LoadBalancing.ROUND_ROBIN);
+        ReplicaSet replicaSet = factory.getReplicaSet(PRIMARY);
+        assertEquals("replicated", read());
+        assertArrayEquals(new int[] {0}, replicaSet.getInFlight());
+
+        Session session = factory.createReadSession(PRIMARY);
+        try {
+            assertEquals("replicated", database(session.doReturningWork(c -> c.getMetaData().getURL())));
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.SecondLevelCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class SecondLevelCacheTest {
+    private static final DataSource CACHED = DataSource.named("cached");
+
+    @BeforeClass
+    public static void register() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream is = SecondLevelCacheTest.class.getClassLoader().getResourceAsStream("hibernate.properties")) {
+            properties.load(is);
+        }
+        properties.setProperty("hibernate.connection.url", "jdbc:h2:mem:cached;DB_CLOSE_DELAY=-1");
+        properties.setProperty("hikari.poolName", "akmade-cached");
+        properties.setProperty(SecondLevelCache.CACHE, SecondLevelCache.JCACHE);
+        properties.setProperty(SecondLevelCache.STRATEGY_PREFIX + Boat.class.getName(), "read-write");
+        HibernateSessionFactory.getInstance().register(CACHED, properties, HibernateSessionFactory.Initialization.EAGER);
+    }
+
+    @AfterClass
+    public static void unregister() {
+        HibernateSessionFactory.getInstance().unregister(CACHED);
+    }
+
+    @Test
+    public void entityCacheTest() {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        Boat boat = BoatRepository.save(new Boat("Kittiwake", 26)).run(CACHED).get();
+        SessionFactory sessionFactory = factory.getSessionFactory(CACHED);
+        assertTrue(sessionFactory.getCache().containsEntity(Boat.class, boat.getId()));
+
+        assertEquals("Kittiwake", BoatRepository.find(boat.getId()).run(CACHED).get().getName());
+        CacheRegionStatistics region = factory.getCacheRegionStatistics(CACHED).get(Boat.class.getName());
+        assertNotNull(region);
+        assertTrue(region.getHitCount() >= 1);
+
+        factory.evictEntity(CACHED, Boat.class, boat.getId());
+        assertFalse(sessionFactory.getCache().containsEntity(Boat.class, boat.getId()));
+        assertTrue(BoatRepository.find(boat.getId()).run(CACHED).isPresent());
+        assertTrue(factory.getCacheRegionStatistics(CACHED).get(Boat.class.getName()).getMissCount() >= 1);
+    }
+
+    @Test
+    public void bulkEvictionTest() {
+        SessionFactory sessionFactory = HibernateSessionFactory.getInstance().getSessionFactory(CACHED);
+        Boat resized = BoatRepository.save(new Boat("Skerry-1", 12)).run(CACHED).get();
+        Boat kept = BoatRepository.save(new Boat("Skerry-2", 14)).run(CACHED).get();
+        assertTrue(sessionFactory.getCache().containsEntity(Boat.class, resized.getId()));
+
+        assertEquals(Optional.of(1), BoatRepository.resize(Collections.singleton(resized.getId()), 13).run(CACHED));
+        assertFalse(sessionFactory.getCache().containsEntity(Boat.class, resized.getId()));
+        assertEquals(13, BoatRepository.find(resized.getId()).run(CACHED).get().getLength());
+
+        assertEquals("Skerry-2", BoatRepository.find(kept.getId()).run(CACHED).get().getName());
+        assertEquals(Optional.of(1), BoatRepository.deleteAll(Collections.singleton(kept.getId())).run(CACHED));
+        assertFalse(sessionFactory.getCache().containsEntity(Boat.class, kept.getId()));
+        assertFalse(BoatRepository.find(kept.getId()).run(CACHED).isPresent());
+    }
+}
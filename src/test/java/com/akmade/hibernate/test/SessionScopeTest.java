@@ -0,0 +1,80 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.exceptions.UnrecoverableException;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.SessionScope;
+import org.hibernate.Session;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SessionScopeTest {
+
+    private static final Qry<Session> CURRENT = Optional::of;
+
+    @Test
+    public void joinTest() throws Exception {
+        assertFalse(SessionScope.isBound(DataSource.DEFAULT));
+        Session[] sessions = SessionScope.supply(DataSource.DEFAULT, () -> {
+            assertTrue(SessionScope.isBound(DataSource.DEFAULT));
+            Boat boat = BoatRepository.save(new Boat("Fulmar", 28)).run(DataSource.DEFAULT).get();
+            assertSame(boat, BoatRepository.find(boat.getId()).readOnly().run(DataSource.DEFAULT).get());
+            try {
+                return new Session[] {
+                        CURRENT.run(DataSource.DEFAULT).get(),
+                        CURRENT.runAsync(DataSource.DEFAULT).get(5, TimeUnit.SECONDS).get()
+                };
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertSame(sessions[0], sessions[1]);
+        assertFalse(sessions[0].isOpen());
+        assertFalse(SessionScope.isBound(DataSource.DEFAULT));
+        assertEquals(Optional.of(1L), BoatRepository.countNamed("Fulmar").run(DataSource.DEFAULT));
+    }
+
+    @Test
+    public void rollbackTest() {
+        Qry<Integer> failing = session -> {
+            throw new IllegalStateException("constraint violated");
+        };
+        try {
+            SessionScope.run(DataSource.DEFAULT, () -> {
+                BoatRepository.save(new Boat("Gannet", 19)).run(DataSource.DEFAULT);
+                try {
+                    failing.run(DataSource.DEFAULT);
+                    fail();
+                } catch (UnrecoverableException e) {
+                    assertTrue(e.getMessage().contains("constraint violated"));
+                }
+            });
+            fail();
+        } catch (UnrecoverableException e) {
+            assertTrue(e.getMessage().contains("rolled back"));
+        }
+        assertEquals(Optional.of(0L), BoatRepository.countNamed("Gannet").run(DataSource.DEFAULT));
+    }
+
+    @Test
+    public void endedScopeTest() throws Exception {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        Runnable child = SessionScope.supply(DataSource.DEFAULT, () -> SessionScope.wrap(() -> {
+            started.complete(null);
+            CURRENT.run(DataSource.DEFAULT);
+        }));
+        try {
+            child.run();
+            fail();
+        } catch (UnrecoverableException e) {
+            assertTrue(e.getMessage().contains("has ended"));
+        }
+        assertTrue(started.isDone());
+        assertFalse(SessionScope.isBound(DataSource.DEFAULT));
+    }
+}
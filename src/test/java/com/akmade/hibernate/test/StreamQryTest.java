@@ -0,0 +1,102 @@
+package com.akmade.hibernate.test;
+
+import com.akmade.hibernate.HibernateSessionFactory;
+import com.akmade.hibernate.HibernateSessionFactory.DataSource;
+import com.akmade.hibernate.HibernateSessionFactory.Initialization;
+import com.akmade.hibernate.Qry;
+import com.akmade.hibernate.StreamQry;
+import org.hibernate.SessionFactory;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class StreamQryTest {
+
+    private static void saveFleet(String prefix, int size) {
+        Qry<Integer> save = session -> {
+            IntStream.range(0, size).forEach(i -> session.save(new Boat(prefix + i, i)));
+            return Optional.of(size);
+        };
+        save.run(DataSource.DEFAULT);
+    }
+
+    @Test
+    public void streamTest() {
+        saveFleet("Stream-", 25);
+        StreamQry<Boat> qry = StreamQry
+                .newBuilder(s -> s.createQuery("from Boat where name like 'Stream-%' order by length", Boat.class))
+                .fetchSize(10)
+                .build();
+        try (Stream<Boat> boats = qry.stream(DataSource.DEFAULT)) {
+            List<Integer> lengths = boats.map(Boat::getLength).collect(Collectors.toList());
+            assertEquals(25, lengths.size());
+            assertEquals((Integer) 24, lengths.get(24));
+        }
+    }
+
+    @Test
+    public void statelessTest() {
+        saveFleet("Stateless-", 5);
+        StreamQry<Object[]> qry = StreamQry
+                .newBuilder(s -> s.createQuery("select name, length from Boat where name like 'Stateless-%' order by length", Object[].class))
+                .stateless(true)
+                .build();
+        try (Stream<Object[]> rows = qry.stream(DataSource.DEFAULT)) {
+            Object[] first = rows.findFirst().get();
+            assertEquals("Stateless-0", first[0]);
+            assertEquals(0, first[1]);
+        }
+    }
+
+    @Test
+    public void nullColumnTest() {
+        Qry<Integer> save = session -> {
+            session.save(new Boat("Nullable-a", 701));
+            session.save(new Boat(null, 702));
+            session.save(new Boat("Nullable-b", 703));
+            return Optional.of(3);
+        };
+        save.run(DataSource.DEFAULT);
+        StreamQry<String> qry = StreamQry
+                .newBuilder(s -> s.createQuery("select name from Boat where length between 701 and 703 order by length", String.class))
+                .build();
+        try (Stream<String> names = qry.stream(DataSource.DEFAULT)) {
+            assertEquals(Arrays.asList("Nullable-a", null, "Nullable-b"), names.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void statelessReloadTest() throws Exception {
+        HibernateSessionFactory factory = HibernateSessionFactory.getInstance();
+        DataSource streamed = DataSource.named("streamed");
+        factory.register(streamed, TestProperties.forDatabase("streamed"), Initialization.EAGER);
+        try {
+            Qry<Integer> save = session -> {
+                IntStream.range(0, 3).forEach(i -> session.save(new Boat("Streamed-" + i, i)));
+                return Optional.of(3);
+            };
+            save.run(streamed);
+            SessionFactory old = factory.getSessionFactory(streamed);
+            StreamQry<Boat> qry = StreamQry
+                    .newBuilder(s -> s.createQuery("from Boat order by length", Boat.class))
+                    .stateless(true)
+                    .build();
+            try (Stream<Boat> boats = qry.stream(streamed)) {
+                assertTrue(factory.reload(streamed, TestProperties.forDatabase("streamed")).get(10, TimeUnit.SECONDS));
+                assertFalse(old.isClosed());
+                assertEquals(3, boats.count());
+            }
+            assertTrue(old.isClosed());
+        } finally {
+            factory.unregister(streamed);
+        }
+    }
+}
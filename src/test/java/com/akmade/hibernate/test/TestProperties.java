@@ -0,0 +1,27 @@
+package com.akmade.hibernate.test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * The test hibernate.properties, pointed at a database of its own. The schema
+ * is updated rather than dropped, so retiring one SessionFactory does not drop
+ * the tables a newer one on the same database is using.
+ */
+public class TestProperties {
+
+    public static Properties forDatabase(String name) {
+        Properties properties = new Properties();
+        try (InputStream is = TestProperties.class.getClassLoader().getResourceAsStream("hibernate.properties")) {
+            properties.load(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        properties.setProperty("hibernate.connection.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        properties.setProperty("hibernate.hbm2ddl.auto", "update");
+        properties.setProperty("hikari.poolName", "akmade-" + name);
+        return properties;
+    }
+}
@@ -0,0 +1,142 @@
+package com.akmade.util.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.util.BoundedMessages;
+import com.akmade.util.BoundedMessages.Limit;
+import com.akmade.util.BoundedMessages.OverflowPolicy;
+import com.akmade.util.PagedServicePackage;
+import com.akmade.util.Reply;
+import com.akmade.util.ServicePackage;
+import com.akmade.util.Validator;
+import io.vavr.collection.Queue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.akmade.util.MessageUtility.MAKE_ERROR;
+import static com.akmade.util.MessageUtility.MAKE_INFO;
+import static org.junit.Assert.*;
+
+public class BoundedMessagesTest {
+
+    private static List<Msg> infos(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> MAKE_INFO.apply("Info " + i))
+                .collect(Collectors.toList());
+    }
+
+    private static Msg summary(Collection<Msg> messages) {
+        return messages.stream().filter(BoundedMessages::isDroppedSummary).findFirst().orElse(null);
+    }
+
+    @Test
+    public void unboundedTest() {
+        Collection<Msg> results = BoundedMessages.bound(Limit.UNBOUNDED, infos(50));
+        assertEquals(50, results.size());
+        assertNull(summary(results));
+    }
+
+    @Test
+    public void keepFirstTest() {
+        BoundedMessages bounded = BoundedMessages.of(Limit.keepFirst(3)).addAll(infos(10));
+        assertEquals(7, bounded.dropped());
+
+        List<Msg> results = new ArrayList<>(bounded.toCollection());
+        assertEquals(4, results.size());
+        assertEquals("Info 0", results.get(0).getMessage());
+        assertEquals("Info 2", results.get(2).getMessage());
+        assertEquals(7, summary(results).getCode());
+    }
+
+    @Test
+    public void keepHighestSeverityTest() {
+        Msg error = MAKE_ERROR.apply("Error");
+        List<Msg> messages = infos(5);
+        messages.add(2, error);
+
+        List<Msg> results = new ArrayList<>(
+                BoundedMessages.bound(Limit.of(2, OverflowPolicy.KEEP_HIGHEST_SEVERITY), messages));
+        assertEquals(3, results.size());
+        assertEquals("Info 0", results.get(0).getMessage());
+        assertEquals(error, results.get(1));
+        assertEquals(4, summary(results).getCode());
+    }
+
+    @Test
+    public void sampleTest() {
+        Collection<Msg> results = BoundedMessages.bound(Limit.of(5, OverflowPolicy.SAMPLE), infos(100));
+        assertEquals(6, results.size());
+        assertEquals(95, summary(results).getCode());
+    }
+
+    @Test
+    public void mergeSummariesTest() {
+        Limit limit = Limit.keepFirst(2);
+        Reply<Integer> reply = Reply.empty(limit,
+                BoundedMessages.bound(limit, infos(5)),
+                BoundedMessages.bound(limit, infos(4)));
+        assertEquals(3, reply.messages().size());
+        assertEquals(7, summary(reply.messages()).getCode());
+    }
+
+    @Test
+    public void validatorTest() {
+        Msg error = MAKE_ERROR.apply("Not even");
+        Msg error2 = MAKE_ERROR.apply("Not positive");
+        Validator<Integer> validator = Validator.<Integer>newBuilder()
+                .addValidation(i -> (Integer) i % 2 == 0, error)
+                .addValidation(i -> (Integer) i > 0, error2)
+                .build();
+
+        assertTrue(validator.validate(4).isPresent());
+
+        Reply<Integer> reply = validator.validate(-3);
+        assertFalse(reply.isPresent());
+        assertEquals(2, reply.messages().size());
+        assertTrue(reply.messages().contains(error));
+        assertTrue(reply.messages().contains(error2));
+
+        Validator<Integer> bounded = Validator.<Integer>newBuilder()
+                .addValidation(validator)
+                .withMessageLimit(Limit.keepFirst(1))
+                .build();
+        reply = bounded.validate(-3);
+        assertEquals(2, reply.messages().size());
+        assertTrue(reply.messages().contains(error));
+        assertEquals(1, summary(reply.messages()).getCode());
+    }
+
+    @Test
+    public void defaultLimitEntryPointsTest() {
+        BoundedMessages.setDefaultLimit(Limit.keepFirst(2));
+        try {
+            Reply<Integer> reply = Reply.empty(Queue.ofAll(infos(5)));
+            assertEquals(3, reply.messages().size());
+            assertEquals(3, summary(reply.messages()).getCode());
+
+            ServicePackage<Integer> pkg = ServicePackage.of(1, Queue.ofAll(infos(4)));
+            assertEquals(3, pkg.messages().size());
+            assertEquals(2, summary(pkg.messages()).getCode());
+
+            ServicePackage<Integer> appended = ServicePackage.of(1)
+                    .withMessage(MAKE_INFO.apply("First"))
+                    .withMessage(MAKE_INFO.apply("Second"))
+                    .withMessage(MAKE_INFO.apply("Third"))
+                    .withMessages(infos(3))
+                    .withMessages(Queue.ofAll(infos(2)));
+            assertEquals(3, appended.messages().size());
+            assertEquals("First", appended.messages().iterator().next().getMessage());
+            assertEquals(6, summary(appended.messages()).getCode());
+
+            PagedServicePackage<Integer> page = PagedServicePackage.empty(infos(4));
+            assertEquals(3, page.messages().size());
+            assertEquals(2, summary(page.messages()).getCode());
+        } finally {
+            BoundedMessages.setDefaultLimit(Limit.UNBOUNDED);
+        }
+    }
+}
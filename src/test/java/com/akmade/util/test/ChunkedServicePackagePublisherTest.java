@@ -0,0 +1,116 @@
+package com.akmade.util.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.util.ChunkedServicePackagePublisher;
+import com.akmade.util.ServicePackageChunk;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.akmade.util.MessageUtility.MAKE_INFOS;
+import static org.junit.Assert.*;
+
+public class ChunkedServicePackagePublisherTest {
+
+    private static class RecordingSubscriber implements Flow.Subscriber<ServicePackageChunk<Integer>> {
+        final List<ServicePackageChunk<Integer>> chunks = new ArrayList<>();
+        Flow.Subscription subscription;
+        boolean completed = false;
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(ServicePackageChunk<Integer> item) {
+            chunks.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+
+    @Test
+    public void demandTest() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        ChunkedServicePackagePublisher<Integer> publisher = ChunkedServicePackagePublisher
+                .newBuilder(() -> IntStream.range(0, 10).boxed().onClose(() -> closed.set(true)))
+                .chunkSize(4)
+                .executor(Runnable::run)
+                .withSummary(count -> MAKE_INFOS.apply(count + " rows"))
+                .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        assertTrue(subscriber.chunks.isEmpty());
+
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.chunks.size());
+        assertEquals(4, subscriber.chunks.get(1).items().size());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(5);
+        assertEquals(4, subscriber.chunks.size());
+        assertEquals(2, subscriber.chunks.get(2).items().size());
+        ServicePackageChunk<Integer> trailer = subscriber.chunks.get(3);
+        assertTrue(trailer.isTrailer());
+        assertEquals("10 rows", trailer.messages().iterator().next().getMessage());
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void cancelTest() {
+        AtomicBoolean closed = new AtomicBoolean(false);
+        ChunkedServicePackagePublisher<Integer> publisher = ChunkedServicePackagePublisher
+                .newBuilder(() -> Stream.iterate(0, i -> i + 1).onClose(() -> closed.set(true)))
+                .chunkSize(3)
+                .executor(Runnable::run)
+                .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.chunks.size());
+        assertTrue(closed.get());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void failureTest() {
+        ChunkedServicePackagePublisher<Integer> publisher = ChunkedServicePackagePublisher
+                .<Integer>newBuilder(() -> Stream.of(1, 2, 3).peek(i -> {
+                    if (i == 3) throw new IllegalStateException("lost connection");
+                }))
+                .chunkSize(4)
+                .executor(Runnable::run)
+                .build();
+
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(2, subscriber.chunks.size());
+        assertEquals(2, subscriber.chunks.get(0).items().size());
+        ServicePackageChunk<Integer> trailer = subscriber.chunks.get(1);
+        assertTrue(trailer.isTrailer());
+        assertEquals(Msg.Severity.EXCEPTION, trailer.messages().iterator().next().getSeverity());
+        assertTrue(subscriber.completed);
+        assertEquals(Collections.emptyList(), trailer.items());
+    }
+}
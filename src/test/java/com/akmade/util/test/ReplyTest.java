@@ -295,6 +295,29 @@ public class ReplyTest {
         assertTrue(results3.messages().stream().anyMatch(m -> m.equals(Reply.EMPTY_MESSAGE)));
     }
 
+    @Test
+    public void messageSeqTest() {
+        Msg error = MAKE_ERROR.apply("Error 1");
+        Msg error2 = MAKE_ERROR.apply("Error 2");
+
+        assertTrue(Reply.of(1).messageSeq().isEmpty());
+
+        Reply<String> reply = Reply.empty(error);
+        Reply<Integer> mapped = reply.map(Integer::valueOf).flatMap(Reply::of);
+        assertSame(reply.messageSeq(), mapped.messageSeq());
+
+        Reply<Integer> appended = Reply.empty(mapped.messageSeq().append(error2));
+        assertEquals(2, appended.messages().size());
+        assertEquals(1, mapped.messages().size());
+
+        try {
+            appended.messages().add(error);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assert(true);
+        }
+    }
+
     @Test
     public void orTest() {
         Reply<Integer> results = Reply.of(1).or(5);
@@ -355,4 +378,22 @@ public class ReplyTest {
         assertTrue(reply.messages().stream().anyMatch(m -> m.equals(error2)));
     }
 
+
+    @Test
+    public void readOnlyMessagesTest() {
+        Reply<Integer> reply = Reply.empty(MAKE_ERROR.apply("First"));
+        Collection<Msg> messages = reply.messages();
+        try {
+            messages.add(MAKE_ERROR.apply("Second"));
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertEquals(1, reply.messages().size());
+        }
+
+        Collection<Msg> copy = new ArrayList<>(reply.messages());
+        copy.add(MAKE_ERROR.apply("Second"));
+        assertEquals(2, copy.size());
+        assertEquals(2, reply.messageSeq().append(MAKE_ERROR.apply("Second")).size());
+        assertEquals(1, reply.messages().size());
+    }
 }
@@ -0,0 +1,67 @@
+package com.akmade.util.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.util.Reply;
+import com.akmade.util.ServicePackage;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static com.akmade.util.MessageUtility.MAKE_ERROR;
+import static com.akmade.util.MessageUtility.MAKE_WARNING;
+import static org.junit.Assert.*;
+
+public class ServicePackageTest {
+
+    @Test
+    public void ofTest() {
+        ServicePackage<Integer> pkg = ServicePackage.of(1);
+        assertEquals((Integer)1, pkg.get());
+        assertFalse(pkg.hasMessages());
+        assertTrue(pkg.messages().isEmpty());
+
+        assertSame(ServicePackage.of(null), ServicePackage.of(null, new ArrayList<>()));
+        assertSame(ServicePackage.of(1).messageSeq(), ServicePackage.of(2).messageSeq());
+    }
+
+    @Test
+    public void immutableMessagesTest() {
+        Msg error = MAKE_ERROR.apply("Error 1");
+        Collection<Msg> messages = new ArrayList<>(){{add(error);}};
+        ServicePackage<Integer> pkg = ServicePackage.of(1, messages);
+        messages.add(MAKE_ERROR.apply("Error 2"));
+        assertEquals(1, pkg.messages().size());
+
+        try {
+            pkg.messages().add(error);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assert(true);
+        }
+        try {
+            ServicePackage.of(2).messages().add(error);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assert(true);
+        }
+        assertFalse(ServicePackage.of(3).hasMessages());
+    }
+
+    @Test
+    public void mapAndWithMessagesTest() {
+        Msg error = MAKE_ERROR.apply("Error 1");
+        Msg warning = MAKE_WARNING.apply("Warning 1");
+        ServicePackage<String> pkg = ServicePackage.ofReply(Reply.empty(error), "start");
+        assertEquals("start", pkg.get());
+
+        ServicePackage<Integer> mapped = pkg.map(String::length);
+        assertEquals((Integer)5, mapped.get());
+        assertSame(pkg.messageSeq(), mapped.messageSeq());
+
+        ServicePackage<Integer> appended = mapped.withMessage(warning);
+        assertEquals(2, appended.messages().size());
+        assertEquals(1, mapped.messages().size());
+        assertSame(mapped, mapped.withMessages(new ArrayList<>()));
+    }
+}
@@ -0,0 +1,79 @@
+package com.akmade.util.test;
+
+import com.akmade.common.proto.Msg;
+import com.akmade.common.proto.ServicePackageEnvelope;
+import com.akmade.util.ServicePackage;
+import com.akmade.util.ServicePackageUtility;
+import com.google.protobuf.ByteString;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import static com.akmade.util.MessageUtility.MAKE_ERROR;
+import static com.akmade.util.MessageUtility.MAKE_INFO;
+import static org.junit.Assert.*;
+
+public class ServicePackageUtilityTest {
+
+    @Test
+    public void envelopeRoundTripTest() throws Exception {
+        Msg payload = MAKE_INFO.apply("Payload");
+        Msg error = MAKE_ERROR.apply("Error 1");
+        Collection<Msg> messages = new ArrayList<>(){{add(error);}};
+
+        ServicePackageEnvelope envelope = ServicePackageUtility.toEnvelope(ServicePackage.of(payload, messages));
+        assertEquals(Msg.class.getName(), envelope.getPayloadType());
+        assertEquals(1, envelope.getMessagesCount());
+
+        ServicePackageEnvelope parsed = ServicePackageEnvelope.parseFrom(envelope.toByteArray());
+        ServicePackage<Msg> result = ServicePackageUtility.fromEnvelope(parsed, Msg.parser());
+        assertEquals(ServicePackageUtility.toEnvelope(result), envelope);
+    }
+
+    @Test
+    public void serializedPayloadTest() {
+        ByteString payload = MAKE_INFO.apply("Payload").toByteString();
+        ServicePackageEnvelope envelope = ServicePackageUtility.toEnvelope(ServicePackage.of(payload), "payload");
+        assertSame(payload, envelope.getPayload());
+        assertSame(payload, ServicePackageUtility.toEnvelope(ServicePackageUtility.fromEnvelope(envelope), "payload").getPayload());
+
+        ServicePackageEnvelope empty = ServicePackageUtility.toEnvelope(ServicePackage.<ByteString>of(null), "payload");
+        assertTrue(empty.getPayloadType().isEmpty());
+    }
+
+    @Test
+    public void writerTest() throws Exception {
+        Msg payload = MAKE_INFO.apply("Payload");
+        Msg error = MAKE_ERROR.apply("Error 1");
+        Msg error2 = MAKE_ERROR.apply("Error 2");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServicePackageUtility.newWriter(out)
+                .writeMessage(error)
+                .writePayload(payload)
+                .writeMessage(error2)
+                .flush();
+
+        ServicePackageEnvelope envelope = ServicePackageEnvelope.parseFrom(out.toByteArray());
+        assertEquals(Msg.class.getName(), envelope.getPayloadType());
+        assertEquals(2, envelope.getMessagesCount());
+        assertEquals(error2, envelope.getMessages(1));
+        assertEquals(payload, Msg.parseFrom(envelope.getPayload()));
+    }
+
+    @Test
+    public void writerSerializedPayloadTest() throws Exception {
+        ByteString payload = MAKE_INFO.apply("Payload").toByteString();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ServicePackageUtility.newWriter(out)
+                .writePayload("payload", payload)
+                .flush();
+
+        ServicePackageEnvelope envelope = ServicePackageEnvelope.parseFrom(out.toByteArray());
+        assertEquals("payload", envelope.getPayloadType());
+        assertEquals(payload, ServicePackageUtility.fromEnvelope(envelope).get());
+    }
+}